@@ -1,28 +1,38 @@
 package com.ezreal.controller;
 
-import com.alibaba.excel.EasyExcel;
-import com.alibaba.excel.write.builder.ExcelWriterBuilder;
+import com.alibaba.excel.exception.ExcelGenerateException;
 import com.alibaba.fastjson.JSON;
 import com.ezreal.model.FileModel;
+import com.ezreal.util.PagedExcelWriter;
 import com.google.common.collect.Lists;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.net.URLEncoder;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+@Slf4j
 @RestController
 public class FileController {
 
 
 
+    /**
+     * 分页导出
+     *
+     * @param total    模拟的总行数
+     * @param pageSize 每页行数
+     */
     @GetMapping("/api/file/download")
-    public void download(HttpServletResponse response) {
+    public void download(@RequestParam(value = "total", defaultValue = "10") int total,
+                         @RequestParam(value = "pageSize", defaultValue = "1000") int pageSize,
+                         HttpServletResponse response) {
         // 这里注意 有同学反应使用swagger 会导致各种问题，请直接用浏览器或者用postman
         try {
             response.setContentType("application/vnd.ms-excel");
@@ -30,20 +40,15 @@ public class FileController {
             // 这里URLEncoder.encode可以防止中文乱码 当然和easyexcel没有关系
             String fileName = URLEncoder.encode("测试", "UTF-8").replaceAll("\\+", "%20");
             response.setHeader("Content-disposition", "attachment;filename*=utf-8''" + fileName + ".xlsx");
-            // 这里需要设置不关闭流
-            List<FileModel> fileModelList = getFileModelList();
-//            EasyExcel.write(response.getOutputStream(), FileModel.class).autoCloseStream(Boolean.FALSE).sheet("模板")
-//                    .doWrite(fileModelList);
-
-            ExcelWriterBuilder write = EasyExcel.write();
-            write.file(response.getOutputStream());
-            List<String> list = Lists.newArrayList("1", "2", "3");
-            List<List<String>> head = Lists.newArrayList();
-            head.add(list);
-            write.head(head);
-            write.autoCloseStream(Boolean.FALSE).sheet("模版").doWrite(fileModelList);
-
+            // 按页查询并写入，查询下一页与写入当前页同时进行
+            PagedExcelWriter.write(response.getOutputStream(), FileModel.class, "模板", pageSize,
+                    (pageNo, size) -> getFileModelPage(total, pageNo, size));
         } catch (Exception e) {
+            if (response.isCommitted()) {
+                // 已经开始输出文件，无法再返回错误信息，抛出异常由容器中断连接，让客户端感知到下载失败
+                log.error("下载文件失败", e);
+                throw new ExcelGenerateException("下载文件失败", e);
+            }
             // 重置response
             response.reset();
             response.setContentType("application/json");
@@ -59,9 +64,12 @@ public class FileController {
         }
     }
 
-    private List<FileModel> getFileModelList(){
+    /**
+     * 模拟数据库分页查询
+     */
+    private List<FileModel> getFileModelPage(int total, int pageNo, int pageSize) {
         List<FileModel> fileModelList = Lists.newArrayList();
-        for (int i = 0; i < 10; i++) {
+        for (int i = (pageNo - 1) * pageSize; i < Math.min(total, pageNo * pageSize); i++) {
             FileModel fileModel = new FileModel();
             fileModel.setFileName("fileName_"+i);
             fileModel.setFileUrl("fileUrl_"+i);
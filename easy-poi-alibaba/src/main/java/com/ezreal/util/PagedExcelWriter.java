@@ -0,0 +1,123 @@
+package com.ezreal.util;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.exception.ExcelGenerateException;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 分页导出
+ * 按页查询数据，每页写入同一个sheet页后即可回收，内存中最多保留两页(正在写入的一页和预取的下一页)
+ * 写入当前页时在后台线程中查询下一页，总耗时接近max(查询耗时, 写入耗时)而不是两者之和
+ * 行数据先写入临时文件，全部写完后才输出到输出流；中途失败时不会输出任何内容，避免得到一个被截断却能正常打开的文件
+ *
+ * @author ezreal
+ */
+@Slf4j
+public class PagedExcelWriter {
+
+    /**
+     * 预取线程，只在查询下一页时占用，空闲后回收
+     */
+    private static final ExecutorService PREFETCH_EXECUTOR = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("excel-page-prefetch-%d").setDaemon(true).build());
+
+    /**
+     * 分页查询
+     */
+    @FunctionalInterface
+    public interface PageQuery<T> {
+
+        /**
+         * @param pageNo   页码，从1开始
+         * @param pageSize 每页行数
+         * @return 该页的数据，不足pageSize(包括空和null)表示最后一页
+         */
+        List<T> query(int pageNo, int pageSize);
+    }
+
+    /**
+     * 分页写入一个sheet页
+     *
+     * @param out       输出流，不会被关闭，只在全部写完后写入
+     * @param head      表头对应的类型
+     * @param sheetName sheet页名称
+     * @param pageSize  每页行数
+     * @param pageQuery 分页查询，在后台线程中调用
+     * @return 导出的行数
+     */
+    public static <T> long write(OutputStream out, Class<T> head, String sheetName, int pageSize, PageQuery<T> pageQuery) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+        }
+        ExcelWriter excelWriter = EasyExcel.write(out, head).autoCloseStream(Boolean.FALSE).build();
+        CompletableFuture<List<T>> next = fetch(pageQuery, 1, pageSize);
+        boolean success = false;
+        try {
+            WriteSheet writeSheet = EasyExcel.writerSheet(sheetName).build();
+            long total = 0;
+            for (int pageNo = 1; next != null; pageNo++) {
+                List<T> page = join(next);
+                boolean last = page == null || page.size() < pageSize;
+                // 先发起下一页的查询，再写入当前页
+                next = last ? null : fetch(pageQuery, pageNo + 1, pageSize);
+                if (page != null && (!page.isEmpty() || pageNo == 1)) {
+                    // 第一页为空时也要写入，保证有表头
+                    excelWriter.write(page, writeSheet);
+                    total += page.size();
+                }
+            }
+            success = true;
+            excelWriter.finish();
+            return total;
+        } catch (RuntimeException | Error e) {
+            if (!success) {
+                abort(excelWriter, e);
+            }
+            throw e;
+        } finally {
+            if (next != null) {
+                next.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 放弃写入，只清理临时文件，不向输出流写入文件内容；清理时的异常附加到原异常上
+     */
+    private static void abort(ExcelWriter excelWriter, Throwable cause) {
+        try {
+            excelWriter.writeContext().finish(true);
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static <T> CompletableFuture<List<T>> fetch(PageQuery<T> pageQuery, int pageNo, int pageSize) {
+        return CompletableFuture.supplyAsync(() -> pageQuery.query(pageNo, pageSize), PREFETCH_EXECUTOR);
+    }
+
+    private static <T> List<T> join(CompletableFuture<List<T>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ExcelGenerateException("分页查询失败", cause);
+        }
+    }
+}
@@ -2,11 +2,19 @@ package com.ezreal;
 
 import com.alibaba.excel.EasyExcel;
 import com.ezreal.model.FileModel;
+import com.ezreal.util.PagedExcelWriter;
 import com.ezreal.util.TestFileUtil;
 import com.google.common.collect.Lists;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class easyPoiTest {
 
@@ -22,6 +30,41 @@ public class easyPoiTest {
         EasyExcel.write(fileName, FileModel.class).sheet("模板").doWrite(getFileModelList());
     }
 
+    /**
+     * 分页写，下一页在写入当前页时查询
+     */
+    @Test
+    public void pagedWrite() {
+        List<Integer> pageNos = new CopyOnWriteArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long total = PagedExcelWriter.write(out, FileModel.class, "模板", 4, (pageNo, pageSize) -> {
+            pageNos.add(pageNo);
+            return getFileModelList().subList(Math.min(10, (pageNo - 1) * pageSize), Math.min(10, pageNo * pageSize));
+        });
+        assertEquals(10, total);
+        assertEquals(Arrays.asList(1, 2, 3), pageNos);
+
+        List<FileModel> rows = EasyExcel.read(new ByteArrayInputStream(out.toByteArray())).head(FileModel.class).sheet().doReadSync();
+        assertEquals(10, rows.size());
+        assertEquals("fileName_9", rows.get(9).getFileName());
+    }
+
+    /**
+     * 分页查询失败时抛出原异常，不输出被截断的文件
+     */
+    @Test
+    public void pagedWriteFailure() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> PagedExcelWriter.write(out, FileModel.class, "模板", 4, (pageNo, pageSize) -> {
+            if (pageNo == 2) {
+                throw new IllegalStateException("查询失败");
+            }
+            return getFileModelList().subList(0, pageSize);
+        }));
+        assertEquals("查询失败", e.getMessage());
+        assertEquals(0, out.size());
+    }
+
     private List<FileModel> getFileModelList(){
         List<FileModel> fileModelList = Lists.newArrayList();
         for (int i = 0; i < 10; i++) {
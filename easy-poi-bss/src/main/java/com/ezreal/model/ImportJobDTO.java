@@ -0,0 +1,30 @@
+package com.ezreal.model;
+
+import lombok.Data;
+
+@Data
+public class ImportJobDTO {
+
+    private String jobId;
+
+    private String fileName;
+
+    private ImportJobStatus status;
+
+    /**
+     * 已处理的行数，不含表头
+     */
+    private Long rowsProcessed;
+
+    /**
+     * 每秒处理的行数，按开始解析到现在(或结束)的时间计算
+     */
+    private Double rowsPerSecond;
+
+    private Long elapsedMillis;
+
+    /**
+     * 失败原因
+     */
+    private String message;
+}
@@ -0,0 +1,23 @@
+package com.ezreal.model;
+
+/**
+ * 导入任务状态
+ */
+public enum ImportJobStatus {
+
+    /**
+     * 等待执行
+     */
+    QUEUED,
+
+    /**
+     * 解析中
+     */
+    RUNNING,
+
+    COMPLETED,
+
+    FAILED,
+
+    CANCELLED
+}
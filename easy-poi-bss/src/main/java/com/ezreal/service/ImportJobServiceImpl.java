@@ -0,0 +1,311 @@
+package com.ezreal.service;
+
+import com.ezreal.model.ImportJobDTO;
+import com.ezreal.model.ImportJobStatus;
+import com.ezreal.util.BatchRowListener;
+import com.ezreal.util.ExcelReadOptions;
+import com.ezreal.util.ExcelReadUtils;
+import com.ezreal.util.ExcelRowIterator;
+import com.ezreal.util.FormulaMode;
+import com.ezreal.util.ServiceException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步导入任务
+ * 上传的文件先落到临时文件，提交后立即返回任务id，由后台线程用ExcelRowIterator流式解析，不再占用请求线程；
+ * 共享字符串表超过阈值时落盘，大文件也不会占满堆
+ * 同时解析的任务数和排队的任务数都有上限，超过时拒绝提交；JVM支持虚拟线程时使用虚拟线程
+ * 取消是协作式的：解析线程每读一行检查一次取消标记，取消后在下一行停止，不再回调未凑满的一批
+ */
+@Slf4j
+@Service
+public class ImportJobServiceImpl {
+
+    /**
+     * 同时解析的任务数
+     */
+    private static final int MAX_RUNNING_JOBS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * 排队等待解析的任务数
+     */
+    private static final int MAX_QUEUED_JOBS = 16;
+
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * 公式读取保存的计算结果，与读取普通单元格相同
+     */
+    private static final ExcelReadOptions READ_OPTIONS = ExcelReadOptions.defaults().setFormulaMode(FormulaMode.CACHED_RESULT);
+
+    /**
+     * 结束的任务保留一小时，供查询状态
+     */
+    private static final long FINISHED_JOB_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * 已提交未结束的任务
+     */
+    private final Semaphore admissions;
+
+    /**
+     * 正在解析的任务，虚拟线程不受线程数限制，由它限制同时解析的任务数
+     */
+    private final Semaphore running;
+
+    private final ExecutorService executor;
+
+    public ImportJobServiceImpl() {
+        this(MAX_RUNNING_JOBS, MAX_QUEUED_JOBS);
+    }
+
+    /**
+     * @param maxRunningJobs 同时解析的任务数
+     * @param maxQueuedJobs  排队等待解析的任务数
+     */
+    ImportJobServiceImpl(int maxRunningJobs, int maxQueuedJobs) {
+        this.admissions = new Semaphore(maxRunningJobs + maxQueuedJobs);
+        this.running = new Semaphore(maxRunningJobs);
+        this.executor = createExecutor(maxRunningJobs);
+    }
+
+    /**
+     * 提交导入任务
+     *
+     * @param uploadFile 上传的文件，只支持xlsx
+     * @param firstIndex 起始行，之前的行(表头)不处理
+     * @param aimClass   每行转换成的类型
+     * @param listener   每凑够一批回调一次，在解析线程中执行
+     * @return 任务id
+     */
+    public <T> String submit(MultipartFile uploadFile, int firstIndex, Class<T> aimClass, BatchRowListener<T> listener) {
+        removeExpiredJobs();
+        if (!admissions.tryAcquire()) {
+            throw new ServiceException("导入任务过多，请稍后再试");
+        }
+        File file;
+        try {
+            file = copyUpload(uploadFile);
+        } catch (IOException | RuntimeException e) {
+            // transferTo在上传文件已被移走时抛出IllegalStateException，同样要归还名额
+            admissions.release();
+            throw new ServiceException("上传文件保存失败", e);
+        }
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), uploadFile.getOriginalFilename());
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, file, firstIndex, aimClass, listener));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            admissions.release();
+            delete(file);
+            throw new ServiceException("导入任务过多，请稍后再试", e);
+        }
+        return job.id;
+    }
+
+    /**
+     * 查询任务状态
+     */
+    public ImportJobDTO getJob(String jobId) {
+        return findJob(jobId).toDTO();
+    }
+
+    /**
+     * 取消任务，排队中的任务不再执行，解析中的任务在读下一行时停止；已结束的任务不受影响
+     */
+    public ImportJobDTO cancel(String jobId) {
+        ImportJob job = findJob(jobId);
+        job.cancelled = true;
+        return job.toDTO();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> job.cancelled = true);
+        executor.shutdownNow();
+    }
+
+    private ImportJob findJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ServiceException(jobId + "，该导入任务不存在");
+        }
+        return job;
+    }
+
+    private <T> void run(ImportJob job, File file, int firstIndex, Class<T> aimClass, BatchRowListener<T> listener) {
+        try {
+            running.acquire();
+            try {
+                if (job.cancelled) {
+                    job.finish(ImportJobStatus.CANCELLED, null);
+                    return;
+                }
+                job.start();
+                read(job, file, firstIndex, aimClass, listener);
+                job.finish(job.cancelled ? ImportJobStatus.CANCELLED : ImportJobStatus.COMPLETED, null);
+            } finally {
+                running.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(ImportJobStatus.CANCELLED, null);
+        } catch (RuntimeException | Error e) {
+            // 写库时的Error也要结束任务，否则任务一直处于解析中，也不会过期移除
+            if (job.cancelled) {
+                job.finish(ImportJobStatus.CANCELLED, null);
+            } else {
+                log.error(job.fileName + "导入失败", e);
+                job.finish(ImportJobStatus.FAILED, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+            }
+        } finally {
+            admissions.release();
+            delete(file);
+        }
+    }
+
+    /**
+     * 逐行转换并分批回调，每行开始前检查取消标记
+     */
+    private static <T> void read(ImportJob job, File file, int firstIndex, Class<T> aimClass, BatchRowListener<T> listener) {
+        try (ExcelRowIterator iterator = ExcelReadUtils.iterateRows(file, READ_OPTIONS)) {
+            List<T> batch = new ArrayList<>(BATCH_SIZE);
+            while (iterator.hasNext()) {
+                if (job.cancelled || Thread.currentThread().isInterrupted()) {
+                    job.cancelled = true;
+                    return;
+                }
+                List<Object> row = iterator.next();
+                if (iterator.getRowNum() < firstIndex) {
+                    continue;
+                }
+                batch.add(ExcelReadUtils.getEntityByRow(row, aimClass));
+                job.rows.incrementAndGet();
+                if (batch.size() == BATCH_SIZE) {
+                    listener.onBatch(batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                listener.onBatch(batch);
+            }
+        }
+    }
+
+    /**
+     * 请求结束后上传的临时文件会被删除，提交前先复制出来；复制失败时删除已创建的文件
+     */
+    private static File copyUpload(MultipartFile uploadFile) throws IOException {
+        File file = Files.createTempFile("excel-import", ".xlsx").toFile();
+        try {
+            uploadFile.transferTo(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            delete(file);
+            throw e;
+        }
+    }
+
+    private void removeExpiredJobs() {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(job -> job.endMillis > 0 && now - job.endMillis > FINISHED_JOB_TTL_MILLIS);
+    }
+
+    private static void delete(File file) {
+        if (!file.delete() && file.exists()) {
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * 优先使用虚拟线程(Java 21+)，否则使用固定大小的线程池
+     * 项目按Java 8编译，只能通过反射获取虚拟线程的线程池
+     */
+    private static ExecutorService createExecutor(int threads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(threads,
+                    new ThreadFactoryBuilder().setNameFormat("excel-import-%d").setDaemon(true).build());
+        }
+    }
+
+    /**
+     * 任务状态，只有解析线程会修改行数
+     */
+    private static class ImportJob {
+
+        private final String id;
+
+        private final String fileName;
+
+        private final AtomicLong rows = new AtomicLong();
+
+        private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+
+        private volatile boolean cancelled;
+
+        private volatile long startNanos;
+
+        private volatile long endNanos;
+
+        private volatile long endMillis;
+
+        private volatile String message;
+
+        private ImportJob(String id, String fileName) {
+            this.id = id;
+            this.fileName = fileName;
+        }
+
+        private void start() {
+            startNanos = System.nanoTime();
+            status = ImportJobStatus.RUNNING;
+        }
+
+        private void finish(ImportJobStatus finalStatus, String message) {
+            this.message = message;
+            if (startNanos > 0) {
+                endNanos = System.nanoTime();
+            }
+            endMillis = System.currentTimeMillis();
+            status = finalStatus;
+        }
+
+        private ImportJobDTO toDTO() {
+            ImportJobDTO dto = new ImportJobDTO();
+            dto.setJobId(id);
+            dto.setFileName(fileName);
+            dto.setStatus(status);
+            long processed = rows.get();
+            dto.setRowsProcessed(processed);
+            long elapsedNanos = startNanos == 0 ? 0 : (endNanos > 0 ? endNanos : System.nanoTime()) - startNanos;
+            dto.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            dto.setRowsPerSecond(elapsedNanos == 0 ? 0D : processed * 1e9 / elapsedNanos);
+            dto.setMessage(message);
+            return dto;
+        }
+    }
+}
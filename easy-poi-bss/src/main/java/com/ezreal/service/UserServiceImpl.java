@@ -1,38 +1,129 @@
 package com.ezreal.service;
 
 import com.ezreal.model.UserDTO;
-import com.ezreal.util.ExcelReadUtils;
+import com.ezreal.util.ExcelSheetData;
+import com.ezreal.util.ExcelWriteOptions;
+import com.ezreal.util.ExcelWriteUtils;
+import com.ezreal.util.ServiceException;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
-import org.apache.poi.ss.usermodel.Workbook;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.io.OutputStream;
 import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 public class UserServiceImpl {
 
     private static final Integer SIZE = 100;
 
-    public String generateUser(){
-        //given
-        List<UserDTO> userList = getUserList();
-        Workbook workbook = ExcelReadUtils.getWorkbook("test.xml");
+    /**
+     * 单次导出的最大行数，超过sheet页上限的行写到新的sheet页
+     */
+    private static final int MAX_SIZE = 10_000_000;
 
-        return "";
+    private static final int MAX_SHEETS = 64;
+
+    private static final List<String> EXPORT_COLUMNS = ImmutableList.of("userName", "phone", "sex");
+
+    private static final List<String> EXPORT_HEADERS = ImmutableList.of("用户名", "手机号", "性别");
+
+    /**
+     * 导出用户，边生成边写入，内存中只保留rowAccessWindowSize行
+     *
+     * @param size 用户数，为null时导出100个
+     * @param out  输出流，不会被关闭
+     * @return 导出的行数
+     */
+    public long generateUser(Integer size, OutputStream out) {
+        return ExcelWriteUtils.write(out, UserDTO.class, getUsers(checkSize(size)), exportOptions());
     }
 
-    private List<UserDTO> getUserList(){
-        List<UserDTO> userDTOList = Lists.newArrayList();
-        for (int i = 0; i < SIZE; i++) {
-            UserDTO userDTO = new UserDTO();
-            userDTO.setUserName("憨憨"+i+"号");
-            userDTO.setPassword("hh123_"+i);
-            userDTO.setPhone("123_"+i);
-            userDTO.setSex(i%2);
-            userDTOList.add(userDTO);
+    /**
+     * 导出用户到多个工作簿，打包成zip，写满的工作簿立即输出
+     *
+     * @param size          用户数，为null时导出100个
+     * @param rowsPerSheet  每个sheet页的最大行数(含表头)，为null时使用xlsx的上限
+     * @param sheetsPerFile 每个工作簿的sheet页数
+     * @param out           输出流，不会被关闭
+     * @return 导出的行数
+     */
+    public long generateUserZip(Integer size, Integer rowsPerSheet, int sheetsPerFile, OutputStream out) {
+        ExcelWriteOptions options = exportOptions().setMaxSheetsPerWorkbook(sheetsPerFile);
+        if (rowsPerSheet != null) {
+            options.setMaxRowsPerSheet(rowsPerSheet);
+        }
+        return ExcelWriteUtils.writeZip(out, "用户", UserDTO.class, getUsers(checkSize(size)), options);
+    }
+
+    /**
+     * 按sheet页分段导出用户，各sheet页并行生成和写入，打包成一个工作簿
+     *
+     * @param size   用户数，为null时导出100个
+     * @param sheets sheet页数，用户按顺序平均分到各sheet页
+     * @param out    输出流，不会被关闭
+     * @return 导出的行数
+     */
+    public long generateUserSheets(Integer size, int sheets, OutputStream out) {
+        int count = checkSize(size);
+        if (sheets < 1 || sheets > MAX_SHEETS) {
+            throw new ServiceException("sheet页数必须在1到" + MAX_SHEETS + "之间");
+        }
+        int perSheet = (count + sheets - 1) / sheets;
+        // writeSheets不换sheet页，表头占一行
+        int maxPerSheet = ExcelWriteOptions.MAX_ROWS_PER_SHEET - 1;
+        if (perSheet > maxPerSheet) {
+            throw new ServiceException("每个sheet页最多" + maxPerSheet + "行，" + count + "个用户至少需要"
+                    + ((count + maxPerSheet - 1) / maxPerSheet) + "个sheet页");
+        }
+        List<ExcelSheetData<?>> sheetDataList = Lists.newArrayList();
+        for (int i = 0; i < sheets; i++) {
+            int from = Math.min(count, i * perSheet);
+            int to = Math.min(count, from + perSheet);
+            sheetDataList.add(ExcelSheetData.of("用户" + (i + 1), UserDTO.class, () -> getUsers(from, to)));
+        }
+        return ExcelWriteUtils.writeSheets(out, sheetDataList, exportOptions());
+    }
+
+    /**
+     * 保存导入的一批用户，由导入任务在解析线程中调用
+     */
+    public void importUsers(List<UserDTO> userList) {
+        log.info("导入用户{}条", userList.size());
+    }
+
+    private static int checkSize(Integer size) {
+        int count = size == null ? SIZE : size;
+        if (count < 0 || count > MAX_SIZE) {
+            throw new ServiceException("导出行数必须在0到" + MAX_SIZE + "之间");
         }
-        return userDTOList;
+        return count;
+    }
 
+    private static ExcelWriteOptions exportOptions() {
+        return ExcelWriteOptions.defaults()
+                .setSheetName("用户")
+                .setColumns(EXPORT_COLUMNS)
+                .setHeaders(EXPORT_HEADERS);
+    }
+
+    private Stream<UserDTO> getUsers(int size) {
+        return getUsers(0, size);
+    }
+
+    private Stream<UserDTO> getUsers(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> {
+            UserDTO userDTO = new UserDTO();
+            userDTO.setUserName("憨憨" + i + "号");
+            userDTO.setPassword("hh123_" + i);
+            userDTO.setPhone("123_" + i);
+            userDTO.setSex(i % 2);
+            return userDTO;
+        });
     }
 
 }
@@ -0,0 +1,175 @@
+package com.ezreal.service;
+
+import com.ezreal.model.ImportJobDTO;
+import com.ezreal.model.ImportJobStatus;
+import com.ezreal.model.UserDTO;
+import com.ezreal.util.BatchRowListener;
+import com.ezreal.util.ExcelWriteUtils;
+import com.ezreal.util.ServiceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ImportJobServiceImplTest {
+
+    private static final int ROWS = 2500;
+
+    private ImportJobServiceImpl service;
+
+    private MockMultipartFile upload;
+
+    @BeforeEach
+    public void setUp() {
+        // 同时解析一个任务，排队一个任务
+        service = new ImportJobServiceImpl(1, 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExcelWriteUtils.write(out, UserDTO.class, IntStream.range(0, ROWS).mapToObj(ImportJobServiceImplTest::user).iterator());
+        upload = new MockMultipartFile("file", "用户.xlsx", null, out.toByteArray());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    public void jobReadsAllRowsInBatches() throws InterruptedException {
+        List<List<UserDTO>> batches = new CopyOnWriteArrayList<>();
+        String jobId = service.submit(upload, 1, UserDTO.class, batches::add);
+
+        ImportJobDTO job = awaitEnd(jobId);
+        assertEquals(ImportJobStatus.COMPLETED, job.getStatus());
+        assertEquals(Long.valueOf(ROWS), job.getRowsProcessed());
+        assertEquals("用户.xlsx", job.getFileName());
+        assertEquals(Arrays.asList(1000, 1000, 500), batches.stream().map(List::size).collect(Collectors.toList()));
+        assertEquals("u0", batches.get(0).get(0).getUserName());
+        assertEquals("u" + (ROWS - 1), batches.get(2).get(499).getUserName());
+    }
+
+    @Test
+    public void cancelRunningAndQueuedJobs() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        String running = service.submit(upload, 1, UserDTO.class, batch -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertEquals(ImportJobStatus.RUNNING, service.getJob(running).getStatus());
+
+        List<List<UserDTO>> queuedBatches = new CopyOnWriteArrayList<>();
+        String queued = service.submit(upload, 1, UserDTO.class, queuedBatches::add);
+        assertEquals(ImportJobStatus.QUEUED, service.getJob(queued).getStatus());
+        // 一个解析中、一个排队中，名额已满
+        ServiceException e = assertThrows(ServiceException.class, () -> service.submit(upload, 1, UserDTO.class, batch -> {
+        }));
+        assertEquals("导入任务过多，请稍后再试", e.getMessage());
+
+        service.cancel(queued);
+        service.cancel(running);
+        release.countDown();
+
+        ImportJobDTO runningJob = awaitEnd(running);
+        assertEquals(ImportJobStatus.CANCELLED, runningJob.getStatus());
+        // 取消后在下一行停止，不再读完剩余的行
+        assertEquals(Long.valueOf(1000), runningJob.getRowsProcessed());
+        ImportJobDTO queuedJob = awaitEnd(queued);
+        assertEquals(ImportJobStatus.CANCELLED, queuedJob.getStatus());
+        assertEquals(Long.valueOf(0), queuedJob.getRowsProcessed());
+        assertTrue(queuedBatches.isEmpty());
+
+        // 结束的任务归还名额
+        assertEquals(ImportJobStatus.COMPLETED, awaitEnd(service.submit(upload, 1, UserDTO.class, batch -> {
+        })).getStatus());
+    }
+
+    @Test
+    public void failingListenerFailsTheJob() throws InterruptedException {
+        BatchRowListener<UserDTO> exception = batch -> {
+            throw new ServiceException("写库失败");
+        };
+        BatchRowListener<UserDTO> error = batch -> {
+            throw new StackOverflowError();
+        };
+        // 失败的次数超过名额，每次都要归还
+        for (int i = 0; i < 3; i++) {
+            ImportJobDTO failed = awaitEnd(service.submit(upload, 1, UserDTO.class, exception));
+            assertEquals(ImportJobStatus.FAILED, failed.getStatus());
+            assertEquals("写库失败", failed.getMessage());
+
+            failed = awaitEnd(service.submit(upload, 1, UserDTO.class, error));
+            assertEquals(ImportJobStatus.FAILED, failed.getStatus());
+            assertEquals("StackOverflowError", failed.getMessage());
+        }
+    }
+
+    @Test
+    public void failedUploadReleasesAdmission() throws InterruptedException {
+        MockMultipartFile moved = new MockMultipartFile("file", "用户.xlsx", null, new byte[0]) {
+            @Override
+            public void transferTo(File dest) {
+                throw new IllegalStateException("文件已被移走");
+            }
+        };
+        int tempFiles = countTempFiles();
+        for (int i = 0; i < 3; i++) {
+            ServiceException e = assertThrows(ServiceException.class, () -> service.submit(moved, 1, UserDTO.class, batch -> {
+            }));
+            assertEquals("上传文件保存失败", e.getMessage());
+        }
+        assertEquals(tempFiles, countTempFiles());
+        assertEquals(ImportJobStatus.COMPLETED, awaitEnd(service.submit(upload, 1, UserDTO.class, batch -> {
+        })).getStatus());
+    }
+
+    private ImportJobDTO awaitEnd(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            ImportJobDTO job = service.getJob(jobId);
+            if (job.getStatus() != ImportJobStatus.QUEUED && job.getStatus() != ImportJobStatus.RUNNING) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError(jobId + "没有结束");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int countTempFiles() {
+        String[] names = new File(System.getProperty("java.io.tmpdir")).list((dir, name) -> name.startsWith("excel-import"));
+        assertNotNull(names);
+        return names.length;
+    }
+
+    private static UserDTO user(int i) {
+        UserDTO user = new UserDTO();
+        user.setUserName("u" + i);
+        user.setPassword("p" + i);
+        user.setSex(i % 2);
+        user.setPhone("1380000" + i);
+        return user;
+    }
+}
@@ -0,0 +1,117 @@
+package com.ezreal.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步分批监听器
+ * 解析线程只负责把批次放进有界队列，由单个消费线程按顺序交给真正的监听器
+ * 队列满时解析线程阻塞，消费者处理不过来时解析自然放慢，内存中最多积压queueCapacity个批次
+ *
+ * @author ezreal
+ */
+@Slf4j
+class AsyncBatchRowListener<T> implements BatchRowListener<T> {
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    /**
+     * 结束标记
+     */
+    private final List<T> end = new ArrayList<>(0);
+
+    private final BatchRowListener<T> delegate;
+
+    private final BlockingQueue<List<T>> queue;
+
+    private final CompletableFuture<Void> consumer;
+
+    private volatile Throwable error;
+
+    private volatile boolean cancelled;
+
+    AsyncBatchRowListener(BatchRowListener<T> delegate, Executor executor, int queueCapacity) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.consumer = CompletableFuture.runAsync(this::consume, executor);
+    }
+
+    private void consume() {
+        try {
+            while (true) {
+                List<T> batch = queue.take();
+                if (batch == end || cancelled) {
+                    return;
+                }
+                delegate.onBatch(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = e;
+        } catch (Throwable e) {
+            error = e;
+        } finally {
+            // 消费者退出后不再接收批次，避免解析线程一直阻塞
+            queue.clear();
+        }
+    }
+
+    @Override
+    public void onBatch(List<T> batch) {
+        offer(batch);
+    }
+
+    /**
+     * 所有批次提交完成，等待消费者处理完毕
+     */
+    void finish() {
+        offer(end);
+        consumer.join();
+        checkError();
+    }
+
+    /**
+     * 解析失败时丢弃未处理的批次并结束消费者
+     */
+    void cancel() {
+        cancelled = true;
+        queue.clear();
+        queue.offer(end);
+    }
+
+    private void offer(List<T> batch) {
+        try {
+            // 队列满时阻塞解析线程，同时检查消费者是否已经失败
+            while (!queue.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkError();
+                if (consumer.isDone()) {
+                    throw new ServiceException("批次处理已终止");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw new ServiceException("读取被中断", e);
+        }
+        checkError();
+    }
+
+    private void checkError() {
+        Throwable e = error;
+        if (e == null) {
+            return;
+        }
+        if (e instanceof ServiceException) {
+            throw (ServiceException) e;
+        }
+        log.error("批次处理失败", e);
+        throw new ServiceException("批次处理失败：" + e.getMessage(), e);
+    }
+}
@@ -0,0 +1,20 @@
+package com.ezreal.util;
+
+import java.util.List;
+
+/**
+ * 分批行监听器
+ * 流式读取时每凑够一批对象回调一次，用于按固定批次写库
+ *
+ * @author ezreal
+ */
+@FunctionalInterface
+public interface BatchRowListener<T> {
+
+    /**
+     * 处理一批数据，每次回调的都是新的列表，可以直接保留
+     *
+     * @param batch 一批对象
+     */
+    void onBatch(List<T> batch);
+}
@@ -0,0 +1,75 @@
+package com.ezreal.util;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * DOM读取单元格时一次读取内共用的状态
+ *
+ * @author ezreal
+ */
+final class CellReadContext {
+
+    private final Workbook workbook;
+
+    private final DateFormatCache dateFormats;
+
+    /**
+     * 字符串字典，为null时不去重
+     */
+    private final StringDictionary dictionary;
+
+    private final FormulaMode formulaMode;
+
+    /**
+     * 第一次需要计算公式时创建，求值器自带计算结果的缓存
+     */
+    private FormulaEvaluator evaluator;
+
+    private CellReadContext(Workbook workbook, StringDictionary dictionary, FormulaMode formulaMode) {
+        this.workbook = workbook;
+        this.dateFormats = DateFormatCache.of(workbook);
+        this.dictionary = dictionary;
+        this.formulaMode = formulaMode == null ? FormulaMode.FORMULA : formulaMode;
+    }
+
+    static CellReadContext of(Workbook workbook) {
+        return new CellReadContext(workbook, null, FormulaMode.FORMULA);
+    }
+
+    static CellReadContext of(Workbook workbook, StringDictionary dictionary) {
+        return new CellReadContext(workbook, dictionary, FormulaMode.FORMULA);
+    }
+
+    /**
+     * 按读取选项创建，选项中设置的字典大小和公式读取方式生效
+     */
+    static CellReadContext of(Workbook workbook, ExcelReadOptions options) {
+        StringDictionary dictionary = options.getStringDictionarySize() > 0 ? new StringDictionary(options.getStringDictionarySize()) : null;
+        return new CellReadContext(workbook, dictionary, options.getFormulaMode());
+    }
+
+    DateFormatCache getDateFormats() {
+        return dateFormats;
+    }
+
+    StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    FormulaMode getFormulaMode() {
+        return formulaMode;
+    }
+
+    /**
+     * 计算公式，不会修改单元格
+     */
+    CellValue evaluate(Cell cell) {
+        if (evaluator == null) {
+            evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+        }
+        return evaluator.evaluate(cell);
+    }
+}
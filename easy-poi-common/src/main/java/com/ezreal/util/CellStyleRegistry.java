@@ -0,0 +1,113 @@
+package com.ezreal.util;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 工作簿的样式登记表
+ * 样式按属性去重，每种属性组合在工作簿中只创建一个CellStyle，字体和数据格式同样只创建一次；
+ * 逐个单元格设置样式时不会再新建样式，不会超过工作簿64000个样式的上限
+ * 与工作簿一一对应，方法加锁，多个sheet页并行写入时可以共用
+ *
+ * @author ezreal
+ */
+public final class CellStyleRegistry {
+
+    private final Workbook workbook;
+
+    private final DataFormat dataFormat;
+
+    private final Map<CellStyleSpec, CellStyle> styles = new HashMap<>();
+
+    private final Map<CellStyleSpec, Font> fonts = new HashMap<>();
+
+    private final Map<String, Short> dataFormats = new HashMap<>();
+
+    public CellStyleRegistry(Workbook workbook) {
+        this.workbook = workbook;
+        this.dataFormat = workbook.createDataFormat();
+    }
+
+    /**
+     * 获取样式，第一次使用时创建
+     * 返回的样式在工作簿内共用，不能再修改
+     */
+    public synchronized CellStyle getStyle(CellStyleSpec spec) {
+        CellStyle style = styles.get(spec);
+        if (style == null) {
+            CellStyleSpec key = spec.copy();
+            style = createStyle(key);
+            styles.put(key, style);
+        }
+        return style;
+    }
+
+    /**
+     * 只设置了数据格式的样式
+     */
+    public CellStyle getStyle(String dataFormat) {
+        return getStyle(CellStyleSpec.of(dataFormat));
+    }
+
+    /**
+     * 数据格式的下标，DataFormat.getFormat每次都要在所有格式中查找，这里按格式缓存
+     */
+    public synchronized short getDataFormat(String format) {
+        return dataFormats.computeIfAbsent(format, dataFormat::getFormat);
+    }
+
+    /**
+     * 已创建的样式个数
+     */
+    public synchronized int size() {
+        return styles.size();
+    }
+
+    public Workbook getWorkbook() {
+        return workbook;
+    }
+
+    private CellStyle createStyle(CellStyleSpec spec) {
+        CellStyle style = workbook.createCellStyle();
+        if (spec.getDataFormat() != null) {
+            style.setDataFormat(getDataFormat(spec.getDataFormat()));
+        }
+        if (spec.hasFont()) {
+            style.setFont(fonts.computeIfAbsent(spec.fontKey(), this::createFont));
+        }
+        if (spec.getHorizontalAlignment() != null) {
+            style.setAlignment(spec.getHorizontalAlignment());
+        }
+        if (spec.getVerticalAlignment() != null) {
+            style.setVerticalAlignment(spec.getVerticalAlignment());
+        }
+        if (spec.getFillColor() != null) {
+            style.setFillForegroundColor(spec.getFillColor());
+            style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        }
+        style.setWrapText(spec.isWrapText());
+        return style;
+    }
+
+    private Font createFont(CellStyleSpec spec) {
+        Font font = workbook.createFont();
+        if (spec.getFontName() != null) {
+            font.setFontName(spec.getFontName());
+        }
+        if (spec.getFontHeightInPoints() != null) {
+            font.setFontHeightInPoints(spec.getFontHeightInPoints());
+        }
+        font.setBold(spec.isBold());
+        font.setItalic(spec.isItalic());
+        if (spec.getFontColor() != null) {
+            font.setColor(spec.getFontColor());
+        }
+        return font;
+    }
+}
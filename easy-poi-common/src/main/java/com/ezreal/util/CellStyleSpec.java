@@ -0,0 +1,71 @@
+package com.ezreal.util;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+
+/**
+ * 单元格样式的描述，属性相同的描述在同一个工作簿中对应同一个CellStyle
+ * 作为CellStyleRegistry的键时会复制一份，之后修改不影响已经登记的样式
+ * 为null或false的属性使用工作簿的默认值
+ *
+ * @author ezreal
+ */
+@Data
+@Accessors(chain = true)
+public class CellStyleSpec {
+
+    /**
+     * 数据格式，如yyyy-mm-dd、#,##0.00
+     */
+    private String dataFormat;
+
+    private String fontName;
+
+    private Short fontHeightInPoints;
+
+    private boolean bold;
+
+    private boolean italic;
+
+    /**
+     * 字体颜色，IndexedColors的下标
+     */
+    private Short fontColor;
+
+    private HorizontalAlignment horizontalAlignment;
+
+    private VerticalAlignment verticalAlignment;
+
+    /**
+     * 纯色填充的颜色，IndexedColors的下标
+     */
+    private Short fillColor;
+
+    private boolean wrapText;
+
+    public static CellStyleSpec of(String dataFormat) {
+        return new CellStyleSpec().setDataFormat(dataFormat);
+    }
+
+    /**
+     * 是否设置了字体属性
+     */
+    boolean hasFont() {
+        return fontName != null || fontHeightInPoints != null || bold || italic || fontColor != null;
+    }
+
+    /**
+     * 只包含字体属性的副本，用作字体的键
+     */
+    CellStyleSpec fontKey() {
+        return new CellStyleSpec().setFontName(fontName).setFontHeightInPoints(fontHeightInPoints)
+                .setBold(bold).setItalic(italic).setFontColor(fontColor);
+    }
+
+    CellStyleSpec copy() {
+        return fontKey().setDataFormat(dataFormat).setHorizontalAlignment(horizontalAlignment)
+                .setVerticalAlignment(verticalAlignment).setFillColor(fillColor).setWrapText(wrapText);
+    }
+}
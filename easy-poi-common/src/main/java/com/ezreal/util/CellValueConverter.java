@@ -0,0 +1,19 @@
+package com.ezreal.util;
+
+/**
+ * 单元格值转换器
+ * 直接由单元格读出的原始值(String、Double、Boolean、Date)转换成字段类型，不经过中间字符串
+ *
+ * @author ezreal
+ */
+@FunctionalInterface
+public interface CellValueConverter {
+
+    /**
+     * 转换
+     *
+     * @param value 单元格值，不为null
+     * @return 字段值
+     */
+    Object convert(Object value);
+}
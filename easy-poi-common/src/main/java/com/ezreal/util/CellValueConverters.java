@@ -0,0 +1,214 @@
+package com.ezreal.util;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.DateUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单元格值转换器注册表
+ * 按(单元格值类型, 字段类型)查找转换器，数值、布尔、日期单元格直接转换，不再先转成字符串再解析
+ * 未注册的组合退回到字符串转换，与原有initValueByType的规则一致，查找结果会被缓存
+ *
+ * @author ezreal
+ */
+public class CellValueConverters {
+
+    private static final String[] DATE_PATTERNS = {"yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd", "yyyy/MM/dd HH:mm:ss", "yyyy/MM/dd", "yyyyMMdd"};
+
+    /**
+     * 单元格值类型 -> 字段类型 -> 转换器
+     */
+    private static final Map<Class<?>, Map<Class<?>, CellValueConverter>> CONVERTERS = new ConcurrentHashMap<>();
+
+    static {
+        // 字符串
+        register(String.class, String.class, value -> StringUtils.trim((String) value));
+        register(String.class, Integer.class, value -> {
+            String str = StringUtils.trim((String) value);
+            try {
+                return Integer.parseInt(ExcelReadUtils.removeErrorSign(str));
+            } catch (Exception e) {
+                throw new ServiceException(str + "该值不能转换成Integer类型");
+            }
+        });
+        register(String.class, Long.class, value -> {
+            String str = StringUtils.trim((String) value);
+            try {
+                return Long.parseLong(ExcelReadUtils.removeErrorSign(str));
+            } catch (Exception e) {
+                throw new ServiceException(str + "该值不能转换成Long类型");
+            }
+        });
+        register(String.class, Double.class, value -> {
+            String str = StringUtils.trim((String) value);
+            try {
+                return Double.parseDouble(str);
+            } catch (Exception e) {
+                throw new ServiceException(str + "该值不能转换成Double类型");
+            }
+        });
+        register(String.class, Float.class, value -> {
+            String str = StringUtils.trim((String) value);
+            try {
+                return Float.parseFloat(str);
+            } catch (Exception e) {
+                throw new ServiceException(str + "该值不能转换成Float类型");
+            }
+        });
+        register(String.class, BigDecimal.class, value -> {
+            String str = StringUtils.trim((String) value);
+            try {
+                return new BigDecimal(str);
+            } catch (Exception e) {
+                throw new ServiceException(str + "该值不能转换成BigDecimal类型");
+            }
+        });
+        register(String.class, Boolean.class, value -> {
+            String str = StringUtils.trim((String) value);
+            if ("true".equalsIgnoreCase(str) || "1".equals(str) || "是".equals(str)) {
+                return Boolean.TRUE;
+            }
+            if ("false".equalsIgnoreCase(str) || "0".equals(str) || "否".equals(str)) {
+                return Boolean.FALSE;
+            }
+            throw new ServiceException(str + "该值不能转换成Boolean类型");
+        });
+        register(String.class, Date.class, value -> {
+            String str = StringUtils.trim((String) value);
+            try {
+                return DateUtils.parseDateStrictly(str, DATE_PATTERNS);
+            } catch (Exception e) {
+                throw new ServiceException(str + "该值不能转换成Date类型");
+            }
+        });
+
+        // 数值
+        register(Double.class, Integer.class, value -> {
+            double number = (Double) value;
+            if (number != Math.rint(number) || number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+                throw new ServiceException(value + "该值不能转换成Integer类型");
+            }
+            return (int) number;
+        });
+        register(Double.class, Long.class, value -> {
+            double number = (Double) value;
+            if (number != Math.rint(number) || number < Long.MIN_VALUE || number > Long.MAX_VALUE) {
+                throw new ServiceException(value + "该值不能转换成Long类型");
+            }
+            return (long) number;
+        });
+        register(Double.class, Float.class, value -> ((Double) value).floatValue());
+        register(Double.class, BigDecimal.class, value -> BigDecimal.valueOf((Double) value));
+        register(Double.class, String.class, String::valueOf);
+        register(Double.class, Boolean.class, value -> {
+            double number = (Double) value;
+            if (number == 1D || number == 0D) {
+                return number == 1D;
+            }
+            throw new ServiceException(value + "该值不能转换成Boolean类型");
+        });
+        // 未设置日期格式的日期单元格
+        register(Double.class, Date.class, value -> ExcelDates.toDate((Double) value, false));
+        register(Double.class, LocalDate.class, value -> ExcelDates.toLocalDate((Double) value, false));
+        register(Double.class, LocalDateTime.class, value -> ExcelDates.toLocalDateTime((Double) value, false));
+
+        // 日期
+        register(Date.class, LocalDate.class, value -> toLocalDateTime((Date) value).toLocalDate());
+        register(Date.class, LocalDateTime.class, value -> toLocalDateTime((Date) value));
+    }
+
+    /**
+     * 注册转换器，已存在时覆盖
+     * 映射计划会缓存用过的转换器，请在读取前注册
+     *
+     * @param sourceType 单元格值类型
+     * @param targetType 字段类型，基本类型按包装类型注册
+     * @param converter  转换器
+     */
+    public static void register(Class<?> sourceType, Class<?> targetType, CellValueConverter converter) {
+        CONVERTERS.computeIfAbsent(sourceType, key -> new ConcurrentHashMap<>())
+                .put(ClassUtils.primitiveToWrapper(targetType), converter);
+    }
+
+    /**
+     * 获取转换器
+     *
+     * @param sourceType 单元格值类型
+     * @param targetType 字段类型
+     * @return 转换器
+     */
+    public static CellValueConverter getConverter(Class<?> sourceType, Class<?> targetType) {
+        Class<?> wrapperType = ClassUtils.primitiveToWrapper(targetType);
+        Map<Class<?>, CellValueConverter> converters = CONVERTERS.computeIfAbsent(sourceType, key -> new ConcurrentHashMap<>());
+        CellValueConverter converter = converters.get(wrapperType);
+        if (converter != null) {
+            return converter;
+        }
+        converter = resolve(sourceType, wrapperType);
+        CellValueConverter existing = converters.putIfAbsent(wrapperType, converter);
+        return existing == null ? converter : existing;
+    }
+
+    /**
+     * 转换成字段类型
+     */
+    public static Object convert(Object value, Class<?> targetType) {
+        if (value == null) {
+            return null;
+        }
+        return getConverter(value.getClass(), targetType).convert(value);
+    }
+
+    private static CellValueConverter resolve(Class<?> sourceType, Class<?> targetType) {
+        if (targetType.isEnum()) {
+            return enumConverter(targetType);
+        }
+        // 父类注册的转换器，如java.sql.Timestamp使用Date的转换器
+        for (Class<?> superType = sourceType.getSuperclass(); superType != null && superType != Object.class; superType = superType.getSuperclass()) {
+            Map<Class<?>, CellValueConverter> converters = CONVERTERS.get(superType);
+            if (converters != null && converters.containsKey(targetType)) {
+                return converters.get(targetType);
+            }
+        }
+        if (sourceType != String.class) {
+            if (targetType.isAssignableFrom(sourceType)) {
+                return value -> value;
+            }
+            // 其余组合按字符串转换
+            CellValueConverter stringConverter = getConverter(String.class, targetType);
+            return value -> stringConverter.convert(value.toString());
+        }
+        if (targetType == LocalDate.class || targetType == LocalDateTime.class) {
+            CellValueConverter dateConverter = getConverter(String.class, Date.class);
+            CellValueConverter localConverter = getConverter(Date.class, targetType);
+            return value -> localConverter.convert(dateConverter.convert(value));
+        }
+        // 字符串转换成未知类型时保留字符串
+        return value -> StringUtils.trim((String) value);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static CellValueConverter enumConverter(Class<?> enumType) {
+        return value -> {
+            String name = StringUtils.trim(value.toString());
+            try {
+                return Enum.valueOf((Class) enumType, name);
+            } catch (IllegalArgumentException e) {
+                throw new ServiceException(name + "该值不能转换成" + enumType.getSimpleName() + "类型");
+            }
+        };
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(date.getTime()), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,297 @@
+package com.ezreal.util;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 类的反射元数据缓存
+ * 按ClassValue缓存，随类一起回收，不会阻止类加载器卸载；多线程共用
+ * 属性在首次使用时一次性收集，方法、getter、setter按名称在首次查找时解析，找不到的结果同样缓存，
+ * 查找时沿父类逐级遍历声明的成员，不依赖NoSuchFieldException/NoSuchMethodException
+ * 注解索引按注解类型在首次使用时建立，建立后不可修改
+ *
+ * @author ezreal
+ */
+final class ClassMetadata {
+
+    private static final ClassValue<ClassMetadata> CACHE = new ClassValue<ClassMetadata>() {
+        @Override
+        protected ClassMetadata computeValue(Class<?> type) {
+            return new ClassMetadata(type);
+        }
+    };
+
+    private static final String SETTER_PREFIX = "set";
+    private static final String GETTER_PREFIX = "get";
+    private static final String IS_PREFIX = "is";
+
+    private final Class<?> type;
+
+    /**
+     * 属性名 -> 属性，子类的属性优先
+     */
+    private final Map<String, Field> fields;
+
+    private final ConcurrentMap<MethodKey, Optional<Method>> methods = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Optional<Method>> methodsByName = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Optional<Method>> getters = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Class<? extends Annotation>, AnnotationIndex> annotationIndexes = new ConcurrentHashMap<>();
+
+    private volatile Set<Annotation> allAnnotations;
+
+    private ClassMetadata(Class<?> type) {
+        this.type = type;
+        Map<String, Field> map = new HashMap<>();
+        for (Class<?> searchType = type; searchType != null && searchType != Object.class; searchType = searchType.getSuperclass()) {
+            for (Field field : searchType.getDeclaredFields()) {
+                map.putIfAbsent(field.getName(), field);
+            }
+        }
+        this.fields = Collections.unmodifiableMap(map);
+    }
+
+    static ClassMetadata of(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    /**
+     * 获取属性，包含父类的属性，找不到时返回null
+     */
+    Field getField(String name) {
+        Field field = fields.get(name);
+        if (field != null) {
+            ClassUtil.makeAccessible(field);
+        }
+        return field;
+    }
+
+    /**
+     * 按名称和参数类型获取方法，包含父类的方法，找不到时返回null
+     */
+    Method getMethod(String name, Class<?>[] parameterTypes) {
+        Optional<Method> method = methods.get(new MethodKey(name, parameterTypes));
+        if (method == null) {
+            method = Optional.ofNullable(findMethod(name, parameterTypes));
+            // 参数数组由调用方传入，缓存时复制一份
+            methods.putIfAbsent(new MethodKey(name, parameterTypes.clone()), method);
+        }
+        return accessible(method);
+    }
+
+    /**
+     * 按名称获取方法，有多个同名方法时取第一个，找不到时返回null
+     */
+    Method getMethodByName(String name) {
+        return accessible(methodsByName.computeIfAbsent(name, k -> Optional.ofNullable(findMethodByName(k))));
+    }
+
+    /**
+     * 获取get或is开头的无参方法，找不到时返回null
+     */
+    Method getGetter(String propertyName) {
+        return accessible(getters.computeIfAbsent(propertyName, k -> {
+            String capitalized = StringUtils.capitalize(k);
+            Method method = getMethod(GETTER_PREFIX + capitalized, new Class<?>[0]);
+            if (method == null) {
+                method = getMethod(IS_PREFIX + capitalized, new Class<?>[0]);
+            }
+            return Optional.ofNullable(method);
+        }));
+    }
+
+    /**
+     * 获取set开头、参数类型完全一致的方法，找不到时返回null
+     */
+    Method getSetter(String propertyName, Class<?> parameterType) {
+        return getMethod(SETTER_PREFIX + StringUtils.capitalize(propertyName), new Class<?>[]{parameterType});
+    }
+
+    /**
+     * 标注了该注解的属性和公共方法
+     */
+    AnnotationIndex getAnnotationIndex(Class<? extends Annotation> annotationType) {
+        return annotationIndexes.computeIfAbsent(annotationType, this::buildAnnotationIndex);
+    }
+
+    /**
+     * 本类、所有父类、所有接口上的注解，以及这些注解上的元注解
+     */
+    Set<Annotation> getAllAnnotations() {
+        Set<Annotation> annotations = allAnnotations;
+        if (annotations == null) {
+            annotations = Collections.unmodifiableSet(collectAnnotations());
+            allAnnotations = annotations;
+        }
+        return annotations;
+    }
+
+    private Set<Annotation> collectAnnotations() {
+        List<Class<?>> allTypes = ClassUtils.getAllSuperclasses(type);
+        allTypes.addAll(ClassUtils.getAllInterfaces(type));
+        allTypes.add(type);
+
+        Set<Annotation> annotations = new HashSet<>();
+        for (Class<?> searchType : allTypes) {
+            annotations.addAll(Arrays.asList(searchType.getDeclaredAnnotations()));
+        }
+        Set<Annotation> metaAnnotations = new HashSet<>();
+        for (Annotation annotation : annotations) {
+            collectMetaAnnotations(annotation.annotationType(), metaAnnotations);
+        }
+        annotations.addAll(metaAnnotations);
+        return annotations;
+    }
+
+    private static void collectMetaAnnotations(Class<? extends Annotation> annotationType, Set<Annotation> visited) {
+        for (Annotation annotation : annotationType.getDeclaredAnnotations()) {
+            if (!annotation.annotationType().getName().startsWith("java.lang") && visited.add(annotation)) {
+                collectMetaAnnotations(annotation.annotationType(), visited);
+            }
+        }
+    }
+
+    /**
+     * 属性沿父类收集，子类的属性在前；公共方法本身有注解，或任一接口中签名相同的方法有注解即算标注
+     * 接口方法只遍历一次，按签名放入集合，不再对每个方法逐个接口调用getMethod
+     */
+    private AnnotationIndex buildAnnotationIndex(Class<? extends Annotation> annotationType) {
+        Set<Field> annotatedFields = new LinkedHashSet<>();
+        for (Class<?> searchType = type; searchType != null && searchType != Object.class; searchType = searchType.getSuperclass()) {
+            for (Field field : searchType.getDeclaredFields()) {
+                if (field.getAnnotation(annotationType) != null) {
+                    annotatedFields.add(field);
+                }
+            }
+        }
+
+        Set<Method> annotatedMethods = new LinkedHashSet<>();
+        if (type != Object.class) {
+            Set<MethodKey> interfaceMethods = new HashSet<>();
+            for (Class<?> iface : ClassUtils.getAllInterfaces(type)) {
+                for (Method method : iface.getMethods()) {
+                    if (method.getAnnotation(annotationType) != null) {
+                        interfaceMethods.add(new MethodKey(method.getName(), method.getParameterTypes()));
+                    }
+                }
+            }
+            for (Method method : type.getMethods()) {
+                if (method.getAnnotation(annotationType) != null
+                        || (!interfaceMethods.isEmpty() && interfaceMethods.contains(new MethodKey(method.getName(), method.getParameterTypes())))) {
+                    annotatedMethods.add(method);
+                }
+            }
+        }
+        return new AnnotationIndex(Collections.unmodifiableSet(annotatedFields), Collections.unmodifiableSet(annotatedMethods));
+    }
+
+    private static Method accessible(Optional<Method> method) {
+        if (!method.isPresent()) {
+            return null;
+        }
+        ClassUtil.makeAccessible(method.get());
+        return method.get();
+    }
+
+    /**
+     * 与Class.getDeclaredMethod一致，同一类中有多个签名相同的方法(桥接方法)时取非桥接方法
+     */
+    private Method findMethod(String name, Class<?>[] parameterTypes) {
+        for (Class<?> searchType = type; searchType != null && searchType != Object.class; searchType = searchType.getSuperclass()) {
+            Method found = null;
+            for (Method method : searchType.getDeclaredMethods()) {
+                if (method.getName().equals(name) && Arrays.equals(method.getParameterTypes(), parameterTypes)
+                        && (found == null || found.isBridge())) {
+                    found = method;
+                }
+            }
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private Method findMethodByName(String name) {
+        for (Class<?> searchType = type; searchType != null && searchType != Object.class; searchType = searchType.getSuperclass()) {
+            for (Method method : searchType.getDeclaredMethods()) {
+                if (method.getName().equals(name)) {
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 某个注解在类中的标注位置，不可修改
+     */
+    static final class AnnotationIndex {
+
+        private final Set<Field> fields;
+
+        private final Set<Method> methods;
+
+        private AnnotationIndex(Set<Field> fields, Set<Method> methods) {
+            this.fields = fields;
+            this.methods = methods;
+        }
+
+        Set<Field> getFields() {
+            return fields;
+        }
+
+        Set<Method> getMethods() {
+            return methods;
+        }
+    }
+
+    private static final class MethodKey {
+
+        private final String name;
+
+        private final Class<?>[] parameterTypes;
+
+        private final int hash;
+
+        private MethodKey(String name, Class<?>[] parameterTypes) {
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+            this.hash = name.hashCode() * 31 + Arrays.hashCode(parameterTypes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MethodKey)) {
+                return false;
+            }
+            MethodKey other = (MethodKey) o;
+            return name.equals(other.name) && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -1,10 +1,8 @@
 package com.ezreal.util;
 
-import com.google.common.collect.Sets;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.ClassUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 
 import java.lang.annotation.Annotation;
@@ -22,10 +20,6 @@ public class ClassUtil {
 
     private static final String CGLIB_CLASS_SEPARATOR = "$$";
 
-    private static final String SETTER_PREFIX = "set";
-    private static final String GETTER_PREFIX = "get";
-    private static final String IS_PREFIX = "is";
-
     private static Map<Class<?>, Class<?>> primitiveWrapperTypeMap = new IdentityHashMap<>(8);
 
     static {
@@ -90,183 +84,81 @@ public class ClassUtil {
     /**
      * 递归Class所有的Annotation
      * 包括所有基类,所有接口的Annotation,同时支持Spring风格的Annotation继承的父Annotation
+     * 结果按类缓存,不可修改
      */
     public static Set<Annotation> getAllAnnotations(final Class<?> cls) {
-        List<Class<?>> allTypes = getAllSuperclasses(cls);
-        allTypes.addAll(getAllInterfaces(cls));
-        allTypes.add(cls);
-
-        Set<Annotation> anns = Sets.newHashSet();
-        for(Class<?> type : allTypes) {
-            anns.addAll(Arrays.asList(type.getDeclaredAnnotations()));
-        }
-
-        Set<Annotation> superAnnotations = Sets.newHashSet();
-        for(Annotation ann : anns) {
-            getSupperAnnotations(ann.annotationType(), superAnnotations);
-        }
-
-        anns.addAll(superAnnotations);
-
-        return anns;
-    }
-
-    private static <A extends Annotation> void getSupperAnnotations(Class<A> annotationType, Set<Annotation> visited) {
-        Annotation[] anns = annotationType.getDeclaredAnnotations();
-
-        for (Annotation ann : anns) {
-            if (!ann.annotationType().getName().startsWith("java.lang") && visited.add(ann)) {
-                getSupperAnnotations(ann.annotationType(), visited);
-            }
-        }
+        return ClassMetadata.of(cls).getAllAnnotations();
     }
 
     ////////// 获取标注了annotation的所有属性和方法 //////////
 
     /**
      * 找出所有标注了该annotation的属性,循环遍历父类,包含private属性
+     * 结果按(类,annotation)缓存,不可修改,子类的属性在前
      */
     public static <T extends Annotation> Set<Field> getAnnotatedPublicFields(Class<? extends Object> clazz, Class<T> annotation) {
-        if (Object.class.equals(clazz)) {
-            return Collections.emptySet();
-        }
-        Set<Field> annotatedFields = Sets.newHashSet();
-        Field[] fields = clazz.getDeclaredFields();
-        for (Field field : fields) {
-            if (field.getAnnotation(annotation) != null) {
-                annotatedFields.add(field);
-            }
-        }
-        annotatedFields.addAll(getAnnotatedPublicFields(clazz.getSuperclass(), annotation));
-        return annotatedFields;
+        return ClassMetadata.of(clazz).getAnnotationIndex(annotation).getFields();
     }
 
     /**
      * 找出所有标注了该annotation的公共方法(含父类的公共函数),循环其接口.
+     * 结果按(类,annotation)缓存,不可修改
      */
     public static <T extends Annotation> Set<Method> getAnnotatedPublicMethods(Class<?> clazz, Class<T> annotation) {
-        // 已递归到Objebt.class, 停止递归
-        if (Object.class.equals(clazz)) {
-            return Collections.emptySet();
-        }
-
-        List<Class<?>> ifcs = ClassUtils.getAllInterfaces(clazz);
-        Set<Method> annotatedMethods = Sets.newHashSet();
-
-        // 遍历当前类的所有公共方法
-        Method[] methods = clazz.getMethods();
-
-        for (Method method : methods) {
-            // 如果当前方法有标注，或定义了该方法的所有接口有标注
-            if (method.getAnnotation(annotation) != null || searchOnInterfaces(method, annotation, ifcs)) {
-                annotatedMethods.add(method);
-            }
-        }
-
-        return annotatedMethods;
-    }
-
-    private static <T extends Annotation> boolean searchOnInterfaces(Method method, Class<T> annotationType,
-                                                                     List<Class<?>> ifcs) {
-        for (Class<?> iface : ifcs) {
-            try {
-                Method equivalentMethod = iface.getMethod(method.getName(), method.getParameterTypes());
-                if (equivalentMethod.getAnnotation(annotationType) != null) {
-                    return true;
-                }
-            } catch (NoSuchMethodException ex) {
-                // Skip this interface - it doesn't have the method...
-            }
-        }
-        return false;
+        return ClassMetadata.of(clazz).getAnnotationIndex(annotation).getMethods();
     }
 
     ////////// 获取方法 //////////
 
     /**
-     * 循环遍历，按属性名获取前缀为get或is的函数,并设为可访问
+     * 循环遍历,按属性名获取前缀为set的函数,并设为可访问
+     * 查找结果按类缓存
      */
     public static Method getSetterMethod(Class<?> clazz, String propertyName, Class<?> parameterType) {
-        String setterMethodName = ClassUtil.SETTER_PREFIX + StringUtils.capitalize(propertyName);
-        return ClassUtil.getAccessibleMethod(clazz, setterMethodName, parameterType);
+        Validate.notNull(clazz, "clazz can't be null");
+        return ClassMetadata.of(clazz).getSetter(propertyName, parameterType);
     }
 
     /**
-     * 循环遍历,按属性名获取前缀为set的函数,并设为可访问
+     * 循环遍历，按属性名获取前缀为get或is的函数,并设为可访问
+     * 查找结果按类缓存
      */
     public static Method getGetterMethod(Class<?> clazz, String propertyName) {
-        String getterMethodName = ClassUtil.GETTER_PREFIX + StringUtils.capitalize(propertyName);
-
-        Method method = ClassUtil.getAccessibleMethod(clazz, getterMethodName);
-
-        // retry on another name
-        if (method == null) {
-            getterMethodName = ClassUtil.IS_PREFIX + StringUtils.capitalize(propertyName);
-            method = ClassUtil.getAccessibleMethod(clazz, getterMethodName);
-        }
-        return method;
+        Validate.notNull(clazz, "clazz can't be null");
+        return ClassMetadata.of(clazz).getGetter(propertyName);
     }
 
     /**
      * 循环向上转型,获取对象的DeclaredField,并强制设置为可访问
      * 如向上转型到Object仍无法找到,返回null
+     * 查找结果按类缓存
      */
     public static Field getAccessibleField(final Class clazz, final String fieldName) {
         Validate.notNull(clazz, "clazz can't be null");
         Validate.notEmpty(fieldName, "fieldName can't be blank");
-        for(Class<?> superClass = clazz; superClass != Object.class; superClass = superClass.getSuperclass()) {
-            try {
-                Field field = superClass.getDeclaredField(fieldName);
-                ClassUtil.makeAccessible(field);
-                return field;
-            } catch (NoSuchFieldException e) {
-                //Field不在当前类定义,继续向上转型
-            }
-        }
-        return null;
+        return ClassMetadata.of(clazz).getField(fieldName);
     }
 
     /**
      * 循环向上转型,获取对象的DeclaredMethod,并强制设置为可访问
      * 如向上转型到Object仍无法找到,返回null
+     * 查找结果按类缓存
      */
     public static Method getAccessibleMethod(final Class clazz, final String methodName, Class<?>... parameterTypes) {
         Validate.notNull(clazz, "clazz can't be null");
         Validate.notEmpty(methodName, "methodName can't be blank");
-        Class[] theParameterTypes = ArrayUtils.nullToEmpty(parameterTypes);
-
-        for(Class<?> searchType = clazz; searchType != Object.class; searchType = searchType.getSuperclass()) {
-            Method method = null;
-            try {
-                method = searchType.getDeclaredMethod(methodName, theParameterTypes);
-                ClassUtil.makeAccessible(method);
-                return method;
-            } catch (NoSuchMethodException e) {
-                //Method不在当前类定义,继续向上转型
-            }
-        }
-
-        return null;
+        return ClassMetadata.of(clazz).getMethod(methodName, ArrayUtils.nullToEmpty(parameterTypes));
     }
 
     /**
      * 循环向上转型,获取对象的DeclaredMethod,并强制设置为可访问
      * 如向上转型到Object仍无法找到,返回null.
+     * 查找结果按类缓存
      */
     public static Method getAccessibleMethodByName(final Class clazz, final String methodName) {
         Validate.notNull(clazz, "clazz can't be null");
         Validate.notEmpty(methodName, "methodName can't be blank");
-
-        for (Class<?> searchType = clazz; searchType != Object.class; searchType = searchType.getSuperclass()) {
-            Method[] methods = searchType.getDeclaredMethods();
-            for (Method method : methods) {
-                if (method.getName().equals(methodName)) {
-                    ClassUtil.makeAccessible(method);
-                    return method;
-                }
-            }
-        }
-        return null;
+        return ClassMetadata.of(clazz).getMethodByName(methodName);
     }
 
     /**
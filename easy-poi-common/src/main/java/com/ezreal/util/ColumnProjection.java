@@ -0,0 +1,179 @@
+package com.ezreal.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 列投影
+ * 只读取指定的列，读取结果按指定的顺序排列，未选中的单元格不做解析、去空格和装箱
+ * 可以按列前缀(与ExcelReadUtils.getExcelCellPrefixByIndex一致，如A、C、AB)指定，也可以按表头名称指定，
+ * 按表头名称指定时以sheet页的第一行作为表头，读到第一行后再确定列下标
+ *
+ * @author ezreal
+ */
+public final class ColumnProjection {
+
+    /**
+     * 表头名称，按列前缀指定时为null
+     */
+    private final String[] headers;
+
+    /**
+     * 选中的列下标，按表头名称指定且未解析时为null
+     */
+    private final int[] columns;
+
+    /**
+     * 列下标 -> 结果中的位置，未选中为-1
+     */
+    private final int[] slots;
+
+    private ColumnProjection(String[] headers, int[] columns) {
+        this.headers = headers;
+        this.columns = columns;
+        if (columns == null) {
+            this.slots = null;
+            return;
+        }
+        int maxColumn = Arrays.stream(columns).max().orElse(-1);
+        this.slots = new int[maxColumn + 1];
+        Arrays.fill(slots, -1);
+        for (int i = 0; i < columns.length; i++) {
+            Validate.isTrue(columns[i] >= 0, "column index must not be negative");
+            Validate.isTrue(slots[columns[i]] < 0, "duplicate column: %s", ExcelReadUtils.getExcelCellPrefixByIndex(columns[i]));
+            slots[columns[i]] = i;
+        }
+    }
+
+    /**
+     * 按列前缀指定，如ofColumns("A", "C", "AB")
+     */
+    public static ColumnProjection ofColumns(String... cellPrefixes) {
+        Validate.notEmpty(cellPrefixes, "cellPrefixes must not be empty");
+        int[] columns = new int[cellPrefixes.length];
+        for (int i = 0; i < cellPrefixes.length; i++) {
+            String prefix = StringUtils.upperCase(StringUtils.trim(cellPrefixes[i]));
+            Validate.isTrue(StringUtils.isAlpha(prefix), "invalid column: %s", cellPrefixes[i]);
+            columns[i] = ExcelSheetReader.getColumnIndex(prefix);
+        }
+        return new ColumnProjection(null, columns);
+    }
+
+    /**
+     * 按列下标指定，从0开始
+     */
+    public static ColumnProjection ofIndexes(int... columns) {
+        Validate.isTrue(columns != null && columns.length > 0, "columns must not be empty");
+        return new ColumnProjection(null, columns.clone());
+    }
+
+    /**
+     * 按表头名称指定，表头取sheet页的第一行，名称比较前去掉首尾空格
+     */
+    public static ColumnProjection ofHeaders(String... headers) {
+        Validate.notEmpty(headers, "headers must not be empty");
+        return new ColumnProjection(headers.clone(), null);
+    }
+
+    /**
+     * 列下标是否已确定
+     */
+    public boolean isResolved() {
+        return columns != null;
+    }
+
+    /**
+     * 根据表头行确定列下标，已确定时返回自身
+     *
+     * @param headerRow 表头行，下标即列下标
+     * @return 已确定列下标的投影
+     */
+    public ColumnProjection resolve(List<?> headerRow) {
+        if (isResolved()) {
+            return this;
+        }
+        int[] resolved = new int[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            resolved[i] = indexOfHeader(headerRow, StringUtils.trim(headers[i]));
+            if (resolved[i] < 0) {
+                throw new ServiceException(headers[i] + "，该列名称没找到");
+            }
+        }
+        return new ColumnProjection(headers, resolved);
+    }
+
+    private static int indexOfHeader(List<?> headerRow, String header) {
+        for (int i = 0; i < headerRow.size(); i++) {
+            Object value = headerRow.get(i);
+            if (value != null && header.equals(StringUtils.trim(value.toString()))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 选中的列数
+     */
+    public int size() {
+        return headers != null ? headers.length : columns.length;
+    }
+
+    /**
+     * 选中的列下标，按结果中的顺序排列
+     */
+    public int[] getColumns() {
+        checkResolved();
+        return columns.clone();
+    }
+
+    /**
+     * 列在结果中的位置，未选中时返回-1
+     */
+    public int slotOf(int column) {
+        checkResolved();
+        return column < slots.length ? slots[column] : -1;
+    }
+
+    /**
+     * 从完整的行中取出选中的列，不存在的列为null
+     */
+    List<Object> project(List<?> row) {
+        checkResolved();
+        List<Object> projected = new ArrayList<>(columns.length);
+        for (int column : columns) {
+            projected.add(column < row.size() ? row.get(column) : null);
+        }
+        return projected;
+    }
+
+    /**
+     * 选中列中最大的列下标
+     */
+    int getMaxColumn() {
+        checkResolved();
+        return slots.length - 1;
+    }
+
+    private void checkResolved() {
+        if (!isResolved()) {
+            throw new IllegalStateException("按表头名称指定的列投影需要先读取表头");
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (!isResolved()) {
+            return "ColumnProjection" + Arrays.toString(headers);
+        }
+        StringBuilder builder = new StringBuilder("ColumnProjection[");
+        for (int i = 0; i < columns.length; i++) {
+            builder.append(i == 0 ? "" : ", ").append(ExcelReadUtils.getExcelCellPrefixByIndex(columns[i]));
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,156 @@
+package com.ezreal.util;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * 按样式下标缓存的日期格式判断
+ * 一个工作簿只有少量样式，每个样式的格式字符串只交给DateUtil.isADateFormat分析一次，之后只比较数值范围
+ * 判断结果与DateUtil.isCellDateFormatted一致；日期按ExcelDates直接换算，不再为每个单元格创建Calendar
+ * DOM读取时每个工作簿共用一份(弱引用，随工作簿回收)，读取期间请勿修改样式的数据格式；多线程读取时结果幂等，无需加锁
+ *
+ * @author ezreal
+ */
+final class DateFormatCache {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte DATE = 1;
+    private static final byte NOT_DATE = 2;
+
+    private static final Map<Workbook, DateFormatCache> WORKBOOKS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * 按样式下标获取样式，不存在时返回null
+     */
+    private final IntFunction<CellStyle> styleLoader;
+
+    /**
+     * 是否使用1904日期系统，无法获知时为null，此时由单元格自己换算
+     */
+    private final Boolean date1904;
+
+    private volatile byte[] decisions;
+
+    private DateFormatCache(int styleCount, IntFunction<CellStyle> styleLoader, Boolean date1904) {
+        this.styleLoader = styleLoader;
+        this.date1904 = date1904;
+        this.decisions = new byte[Math.max(styleCount, 1)];
+    }
+
+    /**
+     * 获取工作簿的缓存，同一个工作簿共用
+     */
+    static DateFormatCache of(Workbook workbook) {
+        return WORKBOOKS.computeIfAbsent(workbook, wb -> {
+            // 缓存是WeakHashMap的值，不能强引用工作簿，否则工作簿永远不会被回收
+            WeakReference<Workbook> reference = new WeakReference<>(wb);
+            return new DateFormatCache(wb.getNumCellStyles(), index -> {
+                Workbook current = reference.get();
+                return current == null || index >= current.getNumCellStyles() ? null : current.getCellStyleAt(index);
+            }, isDate1904(wb));
+        });
+    }
+
+    /**
+     * 流式读取时使用的缓存
+     */
+    static DateFormatCache of(StylesTable styles, boolean date1904) {
+        if (styles == null) {
+            return new DateFormatCache(0, index -> null, date1904);
+        }
+        return new DateFormatCache(styles.getNumCellStyles(), index -> index < styles.getNumCellStyles() ? styles.getStyleAt(index) : null, date1904);
+    }
+
+    /**
+     * 与DateUtil.isCellDateFormatted一致，不是数值结果的公式单元格同样抛出IllegalStateException
+     */
+    boolean isCellDateFormatted(Cell cell) {
+        return cell != null && isDateFormatted(getStyleIndex(cell), cell.getNumericCellValue());
+    }
+
+    /**
+     * 按单元格的样式判断数值是否为日期，用于公式的计算结果
+     */
+    boolean isDateFormatted(Cell cell, double value) {
+        return isDateFormatted(getStyleIndex(cell), value);
+    }
+
+    boolean isDateFormatted(int styleIndex, double value) {
+        return DateUtil.isValidExcelDate(value) && isDateFormat(styleIndex);
+    }
+
+    /**
+     * 获取日期单元格的值，与Cell.getDateCellValue一致
+     */
+    Date getDateCellValue(Cell cell) {
+        if (date1904 == null) {
+            return cell.getDateCellValue();
+        }
+        return ExcelDates.toDate(cell.getNumericCellValue(), date1904);
+    }
+
+    Date toDate(double value) {
+        return ExcelDates.toDate(value, Boolean.TRUE.equals(date1904));
+    }
+
+    private boolean isDateFormat(int styleIndex) {
+        if (styleIndex < 0) {
+            return false;
+        }
+        byte[] current = decisions;
+        byte decision = styleIndex < current.length ? current[styleIndex] : UNKNOWN;
+        if (decision == UNKNOWN) {
+            CellStyle style = styleLoader.apply(styleIndex);
+            String format = style == null ? null : style.getDataFormatString();
+            decision = format != null && DateUtil.isADateFormat(style.getDataFormat(), format) ? DATE : NOT_DATE;
+            if (styleIndex >= current.length) {
+                // 读取期间新增了样式
+                current = Arrays.copyOf(current, Math.max(styleIndex + 1, current.length * 2));
+            }
+            current[styleIndex] = decision;
+            decisions = current;
+        }
+        return decision == DATE;
+    }
+
+    /**
+     * xlsx单元格直接取s属性，避免为每个单元格创建XSSFCellStyle
+     */
+    private static int getStyleIndex(Cell cell) {
+        if (cell instanceof XSSFCell) {
+            CTCell ctCell = ((XSSFCell) cell).getCTCell();
+            return ctCell.isSetS() ? (int) ctCell.getS() : 0;
+        }
+        CellStyle style = cell.getCellStyle();
+        return style == null ? -1 : style.getIndex() & 0xFFFF;
+    }
+
+    private static Boolean isDate1904(Workbook workbook) {
+        if (workbook instanceof XSSFWorkbook) {
+            return ((XSSFWorkbook) workbook).isDate1904();
+        }
+        if (workbook instanceof SXSSFWorkbook) {
+            return ((SXSSFWorkbook) workbook).getXSSFWorkbook().isDate1904();
+        }
+        if (workbook instanceof HSSFWorkbook) {
+            return ((HSSFWorkbook) workbook).getInternalWorkbook().isUsing1904DateWindowing();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ezreal.util;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.LocaleUtil;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * Excel日期数值与java.time之间的转换
+ * 与DateUtil.getJavaDate的结果一致(包括1900年2月29日的兼容处理和1904日期系统)，
+ * 但直接按天数计算，不为每个单元格创建Calendar
+ *
+ * @author ezreal
+ */
+public final class ExcelDates {
+
+    private static final long DAY_MILLISECONDS = 24L * 60 * 60 * 1000;
+
+    private static final long NANOS_PER_MILLISECOND = 1000_000L;
+
+    private static final double NANOS_PER_DAY = DAY_MILLISECONDS * (double) NANOS_PER_MILLISECOND;
+
+    /**
+     * 1900日期系统中1代表1900-01-01，Excel把1900年当作闰年，60代表不存在的1900-02-29，61起要少算一天
+     */
+    private static final long EPOCH_DAY_1900 = LocalDate.of(1899, 12, 31).toEpochDay();
+
+    /**
+     * 1904日期系统中0代表1904-01-01
+     */
+    private static final long EPOCH_DAY_1904 = LocalDate.of(1904, 1, 1).toEpochDay();
+
+    private ExcelDates() {
+    }
+
+    /**
+     * 转换成LocalDateTime，不是有效的Excel日期时返回null
+     *
+     * @param value    单元格数值
+     * @param date1904 是否使用1904日期系统
+     */
+    public static LocalDateTime toLocalDateTime(double value, boolean date1904) {
+        if (!DateUtil.isValidExcelDate(value)) {
+            return null;
+        }
+        int wholeDays = (int) Math.floor(value);
+        // 与DateUtil一致，毫秒四舍五入
+        long millisecondsInDay = (long) ((value - wholeDays) * DAY_MILLISECONDS + 0.5);
+        long epochDay;
+        if (date1904) {
+            epochDay = EPOCH_DAY_1904 + wholeDays;
+        } else {
+            epochDay = EPOCH_DAY_1900 + wholeDays - (wholeDays < 61 ? 0 : 1);
+        }
+        return LocalDate.ofEpochDay(epochDay).atStartOfDay().plusNanos(millisecondsInDay * NANOS_PER_MILLISECOND);
+    }
+
+    /**
+     * 转换成LocalDate，不是有效的Excel日期时返回null
+     */
+    public static LocalDate toLocalDate(double value, boolean date1904) {
+        LocalDateTime dateTime = toLocalDateTime(value, date1904);
+        return dateTime == null ? null : dateTime.toLocalDate();
+    }
+
+    /**
+     * 转换成Date，时区与DateUtil一致取LocaleUtil.getUserTimeZone()，不是有效的Excel日期时返回null
+     */
+    public static Date toDate(double value, boolean date1904) {
+        LocalDateTime dateTime = toLocalDateTime(value, date1904);
+        return dateTime == null ? null : Date.from(dateTime.atZone(LocaleUtil.getUserTimeZone().toZoneId()).toInstant());
+    }
+
+    /**
+     * 转换成Excel日期数值，与DateUtil.getExcelDate的结果一致，早于日期系统起点时返回-1
+     *
+     * @param dateTime 日期时间
+     * @param date1904 是否使用1904日期系统
+     */
+    public static double toExcelDate(LocalDateTime dateTime, boolean date1904) {
+        long epochDay = dateTime.toLocalDate().toEpochDay();
+        long wholeDays;
+        if (date1904) {
+            wholeDays = epochDay - EPOCH_DAY_1904;
+            if (wholeDays < 0) {
+                return -1;
+            }
+        } else {
+            wholeDays = epochDay - EPOCH_DAY_1900;
+            if (wholeDays < 1) {
+                return -1;
+            }
+            // 补上不存在的1900-02-29
+            if (wholeDays >= 60) {
+                wholeDays++;
+            }
+        }
+        return wholeDays + dateTime.toLocalTime().toNanoOfDay() / NANOS_PER_DAY;
+    }
+
+    /**
+     * 转换成Excel日期数值
+     */
+    public static double toExcelDate(LocalDate date, boolean date1904) {
+        return toExcelDate(date.atStartOfDay(), date1904);
+    }
+
+    /**
+     * 转换成Excel日期数值，时区与DateUtil一致取LocaleUtil.getUserTimeZone()
+     * 按毫秒数转换，java.sql.Date和java.sql.Time不支持toInstant
+     */
+    public static double toExcelDate(Date date, boolean date1904) {
+        return toExcelDate(LocalDateTime.ofInstant(Instant.ofEpochMilli(date.getTime()), LocaleUtil.getUserTimeZone().toZoneId()), date1904);
+    }
+}
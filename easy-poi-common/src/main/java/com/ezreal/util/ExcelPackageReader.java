@@ -0,0 +1,269 @@
+package com.ezreal.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.StaxHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 基于XSSFReader的xlsx文件包读取器
+ * 只负责打开文件包并提供样式、共享字符串等只读信息，sheet页内容交给ExcelSheetReader流式解析
+ * 打开后只做读操作，可以被多个线程中的ExcelSheetReader共用
+ * sharedStrings.xml超过ExcelReadOptions中设置的大小时，共享字符串改为写入临时文件并内存映射，避免大文件撑爆堆内存
+ *
+ * @author ezreal
+ */
+@Slf4j
+class ExcelPackageReader implements Closeable {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = StaxHelper.newXMLInputFactory();
+
+    private final OPCPackage pkg;
+
+    private final XSSFReader xssfReader;
+
+    private final StylesTable styles;
+
+    private final SharedStringSource strings;
+
+    /**
+     * 按样式下标缓存的日期格式判断
+     */
+    private final DateFormatCache dateFormats;
+
+    private final int stringDictionarySize;
+
+    private final FormulaMode formulaMode;
+
+    ExcelPackageReader(File file) throws IOException, OpenXML4JException, SAXException, XMLStreamException {
+        this(file, ExcelReadOptions.defaults());
+    }
+
+    ExcelPackageReader(File file, ExcelReadOptions options) throws IOException, OpenXML4JException, SAXException, XMLStreamException {
+        this.pkg = OPCPackage.open(file, PackageAccess.READ);
+        try {
+            this.xssfReader = new XSSFReader(pkg);
+            this.styles = xssfReader.getStylesTable();
+            this.strings = openSharedStrings(options);
+            this.dateFormats = DateFormatCache.of(styles, readDate1904());
+            this.stringDictionarySize = options.getStringDictionarySize();
+            this.formulaMode = options.getFormulaMode() == null ? FormulaMode.FORMULA : options.getFormulaMode();
+        } catch (IOException | OpenXML4JException | SAXException | XMLStreamException | RuntimeException e) {
+            pkg.revert();
+            throw e;
+        }
+    }
+
+    /**
+     * 打开第一个sheet页
+     */
+    ExcelSheetReader openFirstSheet() throws IOException, OpenXML4JException, XMLStreamException {
+        InputStream is = xssfReader.getSheetsData().next();
+        return new ExcelSheetReader(this, is);
+    }
+
+    /**
+     * 按工作簿中的顺序获取所有sheet页
+     */
+    List<SheetPart> getSheets() throws IOException, OpenXML4JException {
+        List<SheetPart> sheets = new ArrayList<>();
+        XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+        while (iterator.hasNext()) {
+            // 迭代器会打开sheet流，这里只需要名称和part
+            iterator.next().close();
+            sheets.add(new SheetPart(sheets.size(), iterator.getSheetName(), iterator.getSheetPart()));
+        }
+        return sheets;
+    }
+
+    /**
+     * 按名称获取sheet页
+     */
+    SheetPart getSheet(String sheetName) throws IOException, OpenXML4JException {
+        for (SheetPart sheet : getSheets()) {
+            if (sheet.getName().equals(sheetName)) {
+                return sheet;
+            }
+        }
+        throw new ServiceException(sheetName + "，该sheet页名称没找到");
+    }
+
+    /**
+     * 按下标获取sheet页，从0开始
+     */
+    SheetPart getSheet(int sheetIndex) throws IOException, OpenXML4JException {
+        List<SheetPart> sheets = getSheets();
+        if (sheetIndex < 0 || sheetIndex >= sheets.size()) {
+            throw new ServiceException(sheetIndex + "，该sheet页下标不存在");
+        }
+        return sheets.get(sheetIndex);
+    }
+
+    /**
+     * 打开sheet页，不同sheet页可以在不同线程中同时读取
+     */
+    ExcelSheetReader openSheet(SheetPart sheet) throws IOException, XMLStreamException {
+        return new ExcelSheetReader(this, sheet.getPart().getInputStream());
+    }
+
+    XMLStreamReader createXmlReader(InputStream is) throws XMLStreamException {
+        return XML_INPUT_FACTORY.createXMLStreamReader(is);
+    }
+
+    /**
+     * 公式单元格的读取方式
+     */
+    FormulaMode getFormulaMode() {
+        return formulaMode;
+    }
+
+    /**
+     * 每个sheet页新建一个字符串字典，未开启时返回null
+     */
+    StringDictionary newStringDictionary() {
+        return stringDictionarySize > 0 ? new StringDictionary(stringDictionarySize) : null;
+    }
+
+    /**
+     * 获取共享字符串
+     */
+    String getSharedString(int index) {
+        return strings.getEntryAt(index);
+    }
+
+    /**
+     * 与DateUtil.isCellDateFormatted的判断保持一致
+     */
+    boolean isDateFormatted(int styleIndex, double value) {
+        return dateFormats.isDateFormatted(styleIndex, value);
+    }
+
+    Date toDate(double value) {
+        return dateFormats.toDate(value);
+    }
+
+    /**
+     * 选择共享字符串的实现：按需解析，或者按sharedStrings.xml的大小决定是否写入临时文件，压缩包中未记录大小时按小文件处理
+     */
+    private SharedStringSource openSharedStrings(ExcelReadOptions options) throws IOException, SAXException, XMLStreamException {
+        SharedStringSource source = openStreamedSharedStrings(pkg, options);
+        // 与XSSFCell.getRichStringCellValue保持一致，不包含拼音
+        return source != null ? source : SharedStringSource.of(new ReadOnlySharedStringsTable(pkg, false));
+    }
+
+    /**
+     * 开启按需解析时返回LazySharedStrings，sharedStrings.xml超过大小时返回FileBackedSharedStrings，否则返回null，由调用方全部加载
+     * StAX读取和SAX读取共用
+     */
+    static SharedStringSource openStreamedSharedStrings(OPCPackage pkg, ExcelReadOptions options) throws IOException, XMLStreamException {
+        List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        if (parts.isEmpty()) {
+            return null;
+        }
+        if (options.isLazySharedStrings()) {
+            InputStream is = parts.get(0).getInputStream();
+            try {
+                return new LazySharedStrings(is, XML_INPUT_FACTORY.createXMLStreamReader(is));
+            } catch (XMLStreamException | RuntimeException e) {
+                is.close();
+                throw e;
+            }
+        }
+        if (parts.get(0).getSize() > options.getSharedStringsSpillThreshold()) {
+            PackagePart part = parts.get(0);
+            log.info("sharedStrings.xml大小为{}字节，共享字符串写入临时文件读取", part.getSize());
+            try (InputStream is = part.getInputStream()) {
+                return new FileBackedSharedStrings(XML_INPUT_FACTORY.createXMLStreamReader(is), options.getSharedStringsCacheSize());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * workbookPr在sheets之前，读到sheets即可停止
+     */
+    private boolean readDate1904() throws IOException, OpenXML4JException, XMLStreamException {
+        try (InputStream is = xssfReader.getWorkbookData()) {
+            XMLStreamReader reader = createXmlReader(is);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    String name = reader.getLocalName();
+                    if ("workbookPr".equals(name)) {
+                        String value = reader.getAttributeValue(null, "date1904");
+                        return "1".equals(value) || "true".equalsIgnoreCase(value);
+                    }
+                    if ("sheets".equals(name)) {
+                        return false;
+                    }
+                }
+                return false;
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * 只读方式打开的文件包不需要保存，直接还原即可
+     */
+    @Override
+    public void close() {
+        try {
+            strings.close();
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    /**
+     * sheet页信息
+     */
+    static final class SheetPart {
+
+        private final int index;
+
+        private final String name;
+
+        private final PackagePart part;
+
+        private SheetPart(int index, String name, PackagePart part) {
+            this.index = index;
+            this.name = name;
+            this.part = part;
+        }
+
+        int getIndex() {
+            return index;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        PackagePart getPart() {
+            return part;
+        }
+    }
+}
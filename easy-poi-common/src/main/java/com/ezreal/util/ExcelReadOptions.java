@@ -0,0 +1,54 @@
+package com.ezreal.util;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * 读取选项
+ * 主要用于流式读取，DOM读取时字符串字典和公式读取方式同样生效
+ *
+ * @author ezreal
+ */
+@Data
+@Accessors(chain = true)
+public class ExcelReadOptions {
+
+    /**
+     * 默认64M
+     */
+    public static final long DEFAULT_SHARED_STRINGS_SPILL_THRESHOLD = 64L * 1024 * 1024;
+
+    /**
+     * sharedStrings.xml超过该大小(字节)时，共享字符串写入临时文件并通过内存映射读取，不再全部加载到堆中
+     */
+    private long sharedStringsSpillThreshold = DEFAULT_SHARED_STRINGS_SPILL_THRESHOLD;
+
+    /**
+     * 写入临时文件时，内存中缓存的已解码字符串个数
+     */
+    private int sharedStringsCacheSize = 1024;
+
+    /**
+     * 按需解析共享字符串，只解析到用到的最大下标为止，适合只读取前几行的场景
+     */
+    private boolean lazySharedStrings;
+
+    /**
+     * 字符串字典的大小，大于0时重复的单元格文本只保留一个实例，每个不同的字符串只trim一次；0表示不去重
+     */
+    private int stringDictionarySize;
+
+    /**
+     * 公式单元格的读取方式，默认返回公式本身
+     */
+    private FormulaMode formulaMode = FormulaMode.FORMULA;
+
+    /**
+     * 列投影，只读取指定的列，为null时读取所有列
+     */
+    private ColumnProjection columnProjection;
+
+    public static ExcelReadOptions defaults() {
+        return new ExcelReadOptions();
+    }
+}
@@ -5,8 +5,10 @@ import com.google.common.collect.Maps;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
 import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.util.SAXHelper;
@@ -14,23 +16,40 @@ import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
 import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
 import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
+import org.springframework.util.FileSystemUtils;
 import org.springframework.web.multipart.MultipartFile;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
 
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.Field;
-import java.math.BigDecimal;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Slf4j
 @UtilityClass
@@ -56,10 +75,10 @@ public class ExcelReadUtils {
      * @return excel读取结果
      */
     public static List<List<Object>> getExcelContextByPathAndStartNumber(String path, int startNumber, Integer rowCountIndex) {
-        rowCountIndex = Optional.ofNullable(rowCountIndex).orElseGet(() -> getRowNum(path));
-
         Workbook wb = getWorkbook(path);
         Sheet sheet = wb.getSheetAt(0);
+        // 未指定行数时直接取当前sheet的行数，避免再次打开文件
+        rowCountIndex = Optional.ofNullable(rowCountIndex).orElseGet(() -> sheet.getLastRowNum() + 1);
         List<List<Object>> rowList = readRows(sheet, startNumber, rowCountIndex);
 
         if (rowList.size() == 0) {
@@ -80,37 +99,169 @@ public class ExcelReadUtils {
 
     /**
      * 获取前面几行内容
+     * xlsx文件流式读取，只保留前几行；合并单元格与原来一样每个单元格都填充左上角的值，为此要继续解析到sheet页末尾读取合并信息，
+     * 只需要前几行且不关心合并单元格时使用previewRows，读到指定行后立即停止；其余格式整体读取
      *
      * @param path          文件路径
      * @param rowCountIndex 总行数
      * @return 前几行内容
      */
     public static List<List<Object>> getContextByHeadNumber(String path, int rowCountIndex) {
-        return getExcelContextByPathAndStartNumber(path, 0, rowCountIndex);
+        File file = new File(path);
+        if (!isOoxml(file)) {
+            return getExcelContextByPathAndStartNumber(path, 0, rowCountIndex);
+        }
+        List<List<Object>> rowList = readFirstRows(file, rowCountIndex, true);
+        if (rowList.size() == 0) {
+            throw new NullPointerException("该文件中没有内容，请检查文件是否为空");
+        }
+        return rowList;
+    }
+
+    /**
+     * 预览第一个sheet页的前几行，只支持xlsx
+     * 读到下标为lastRowIndex的行后立即停止解析，共享字符串也只解析到用到的为止，
+     * 合并单元格信息位于sheet数据之后，预览时合并单元格只有左上角有值；其余规则与readRows一致
+     *
+     * @param file         文件
+     * @param lastRowIndex 最后一行的下标，从0开始
+     * @return 前几行内容
+     */
+    public static List<List<Object>> previewRows(File file, int lastRowIndex) {
+        return readFirstRows(file, lastRowIndex, false);
+    }
+
+    /**
+     * 流式读取第一个sheet页的前几行，共享字符串只解析到用到的为止
+     *
+     * @param mergedRegions 是否回填合并单元格，回填时需要解析到sheet页末尾
+     */
+    private static List<List<Object>> readFirstRows(File file, int lastRowIndex, boolean mergedRegions) {
+        ExcelReadOptions options = ExcelReadOptions.defaults().setLazySharedStrings(true);
+        try (ExcelPackageReader packageReader = new ExcelPackageReader(file, options);
+             ExcelSheetReader reader = packageReader.openFirstSheet()) {
+            return reader.readRows(lastRowIndex, mergedRegions);
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Excel解析失败", e);
+            throw new ServiceException(e);
+        }
+    }
+
+    /**
+     * 根据文件头判断是否为xlsx等OOXML格式
+     */
+    private static boolean isOoxml(File file) {
+        try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
+            return FileMagic.valueOf(is) == FileMagic.OOXML;
+        } catch (IOException e) {
+            throw new ServiceException(e);
+        }
     }
 
     /**
      * 具体获取数据 3
+     * 只遍历一次sheet，读完后按读到的最大列数补齐
      */
     public static List<List<Object>> readRows(Sheet sheet, int startRowIndex, int rowCountIndex) {
+        return readRows(sheet, startRowIndex, rowCountIndex, CellReadContext.of(sheet.getWorkbook()));
+    }
+
+    /**
+     * 读取整个sheet页，重复的字符串通过字典共用一个实例
+     *
+     * @param dictionary 字符串字典，为null时不去重
+     */
+    public static List<List<Object>> readRows(Sheet sheet, StringDictionary dictionary) {
+        return readRows(sheet, 0, sheet.getLastRowNum(), CellReadContext.of(sheet.getWorkbook(), dictionary));
+    }
+
+    /**
+     * 按读取选项读取整个sheet页，选项中的字符串字典大小和公式读取方式生效
+     */
+    public static List<List<Object>> readRows(Sheet sheet, ExcelReadOptions options) {
+        return readRows(sheet, 0, sheet.getLastRowNum(), CellReadContext.of(sheet.getWorkbook(), options));
+    }
+
+    private static List<List<Object>> readRows(Sheet sheet, int startRowIndex, int rowCountIndex, CellReadContext context) {
         List<List<Object>> rowList = new ArrayList<>();
-        int totalRows = startRowIndex + rowCountIndex;
-        int maxCellIndex = getMaxCellIndex(sheet);
+        int totalRows = (int) Math.min((long) startRowIndex + rowCountIndex, sheet.getLastRowNum());
+        // 合并单元格索引只建立一次，左上角的值也只读取一次
+        MergedRegionIndex mergedRegions = MergedRegionIndex.of(sheet, range -> readCell(getCell(sheet, range.getFirstRow(), range.getFirstColumn()), context));
+        int maxCellIndex = 0;
         // 取的是下标，所以要+1
         for (int i = startRowIndex; i <= totalRows; i++) {
             Row row = sheet.getRow(i);
             if (row == null) {
                 continue;
             }
-            List<Object> cellList = new ArrayList<>();
-            // 取的是下标，所以要+1
-            for (int j = 0; j <= maxCellIndex; j++) {
-                Cell cell = row.getCell(j);
+            // 合并区域可能超出该行最后一个单元格
+            int lastCellNum = Math.max(row.getLastCellNum(), mergedRegions.getLastCellNum(i));
+            List<Object> cellList = new ArrayList<>(lastCellNum + 1);
+            for (int j = 0; j < lastCellNum; j++) {
                 Object cellValue;
-                if (isMergedRegion(sheet, i, j)) {
-                    cellValue = getMergedRegionValue(sheet, i, j);
+                MergedRegionIndex.Region region = mergedRegions.find(i, j);
+                if (region != null) {
+                    cellValue = region.getValue();
                 } else {
-                    cellValue = readCell(cell);
+                    cellValue = readCell(row.getCell(j), context);
+                }
+                cellList.add(cellValue == null ? "" : cellValue);
+            }
+            maxCellIndex = Math.max(maxCellIndex, lastCellNum);
+            rowList.add(cellList);
+        }
+        // 补齐的单元格不在任何合并区域内，取的是下标，所以要+1
+        for (List<Object> cellList : rowList) {
+            while (cellList.size() <= maxCellIndex) {
+                cellList.add("");
+            }
+        }
+        return rowList;
+    }
+
+    /**
+     * 读取第一个sheet页的指定列
+     */
+    public static List<List<Object>> readRows(String excelFile, ColumnProjection projection) {
+        return readRows(getWorkbook(excelFile).getSheetAt(0), projection);
+    }
+
+    /**
+     * 只读取指定的列，每行按投影的顺序排列，未选中的单元格不会被读取
+     * 按表头名称指定时以sheet页的第一行作为表头，表头行也会按投影返回
+     *
+     * @param sheet      sheet页
+     * @param projection 列投影
+     * @return 行内容
+     */
+    public static List<List<Object>> readRows(Sheet sheet, ColumnProjection projection) {
+        CellReadContext context = CellReadContext.of(sheet.getWorkbook());
+        if (!projection.isResolved()) {
+            Row head = sheet.getRow(sheet.getFirstRowNum());
+            List<Object> headerRow = new ArrayList<>();
+            for (int j = 0; head != null && j < head.getLastCellNum(); j++) {
+                headerRow.add(readCell(head.getCell(j), context));
+            }
+            projection = projection.resolve(headerRow);
+        }
+        int[] columns = projection.getColumns();
+        List<List<Object>> rowList = new ArrayList<>();
+        MergedRegionIndex mergedRegions = MergedRegionIndex.of(sheet, range -> readCell(getCell(sheet, range.getFirstRow(), range.getFirstColumn()), context));
+        for (int i = sheet.getFirstRowNum(); i <= sheet.getLastRowNum(); i++) {
+            Row row = sheet.getRow(i);
+            if (row == null) {
+                continue;
+            }
+            List<Object> cellList = new ArrayList<>(columns.length);
+            for (int column : columns) {
+                Object cellValue;
+                MergedRegionIndex.Region region = mergedRegions.find(i, column);
+                if (region != null) {
+                    cellValue = region.getValue();
+                } else {
+                    cellValue = readCell(row.getCell(column), context);
                 }
                 cellList.add(cellValue == null ? "" : cellValue);
             }
@@ -130,17 +281,18 @@ public class ExcelReadUtils {
         }
     }
 
+    /**
+     * 读取上传文件的所有sheet页，上传文件先写入临时文件再随机访问读取，读取结束后删除
+     */
     public static Map<String, List<List<Object>>> readAllRows(MultipartFile file) {
-        try (InputStream is = file.getInputStream()) {
-            return readAllRows(is);
-        } catch (Exception e) {
-            log.error("Excel解析失败", e);
-            throw new ServiceException(e.getMessage());
-        }
+        return readUploadFile(file, ExcelReadUtils::readAllRows);
     }
 
     public static Map<String, List<List<Object>>> readAllRows(InputStream is) {
-        Workbook wb = getWorkbook(is);
+        return readAllRows(getWorkbook(is));
+    }
+
+    private static Map<String, List<List<Object>>> readAllRows(Workbook wb) {
         Map<String, List<List<Object>>> map = Maps.newHashMap();
         // 获取每个Sheet表
         for (int i = 0; i < wb.getNumberOfSheets(); i++) {
@@ -157,6 +309,77 @@ public class ExcelReadUtils {
         return map;
     }
 
+    /**
+     * 并行读取所有sheet页，只支持xlsx，结果与readAllRows一致并按sheet页顺序排列
+     */
+    public static Map<String, List<List<Object>>> readAllRowsInParallel(String excelFile) {
+        return readAllRowsInParallel(new File(excelFile), null);
+    }
+
+    /**
+     * 并行读取所有sheet页，只支持xlsx，结果与readAllRows一致并按sheet页顺序排列
+     * 文件只打开一次，共享字符串和样式在各sheet页之间共用，每个sheet页由各自的解析器流式读取
+     *
+     * @param file     文件
+     * @param executor 解析用的线程池，为null时使用不超过CPU核数的ForkJoinPool
+     * @return sheet页名称及内容
+     */
+    public static Map<String, List<List<Object>>> readAllRowsInParallel(File file, Executor executor) {
+        try (ExcelPackageReader packageReader = new ExcelPackageReader(file)) {
+            List<ExcelPackageReader.SheetPart> sheets = packageReader.getSheets();
+            ForkJoinPool pool = null;
+            if (executor == null) {
+                int parallelism = Math.max(1, Math.min(sheets.size(), Runtime.getRuntime().availableProcessors()));
+                pool = new ForkJoinPool(parallelism);
+            }
+            Executor sheetExecutor = executor == null ? pool : executor;
+            try {
+                List<CompletableFuture<List<List<Object>>>> futures = new ArrayList<>(sheets.size());
+                for (ExcelPackageReader.SheetPart sheet : sheets) {
+                    futures.add(CompletableFuture.supplyAsync(() -> readSheet(packageReader, sheet), sheetExecutor));
+                }
+                // 等待全部结束后再关闭文件，避免仍在解析的sheet页读到已关闭的文件
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).handle((result, e) -> null).join();
+
+                Map<String, List<List<Object>>> map = Maps.newLinkedHashMap();
+                for (int i = 0; i < sheets.size(); i++) {
+                    List<List<Object>> rows = futures.get(i).join();
+                    if (rows.size() == 0) {
+                        continue;
+                    }
+                    map.put(sheets.get(i).getName(), rows);
+                }
+                if (map.size() == 0) {
+                    throw new ServiceException("请检查文件内容是否存在");
+                }
+                return map;
+            } finally {
+                if (pool != null) {
+                    pool.shutdown();
+                }
+            }
+        } catch (ServiceException e) {
+            throw e;
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof ServiceException ? (ServiceException) e.getCause() : new ServiceException(e.getCause());
+        } catch (Exception e) {
+            log.error("Excel解析失败", e);
+            throw new ServiceException(e);
+        }
+    }
+
+    /**
+     * 流式读取整个sheet页
+     */
+    private static List<List<Object>> readSheet(ExcelPackageReader packageReader, ExcelPackageReader.SheetPart sheet) {
+        try (ExcelSheetReader reader = packageReader.openSheet(sheet)) {
+            return reader.readAllRows();
+        } catch (Exception e) {
+            log.error(sheet.getName() + "解析失败", e);
+            throw new ServiceException(sheet.getName() + "解析失败", e);
+        }
+    }
+
     public static List<List<Object>> readRows(String excelFile) {
         try (FileInputStream is = new FileInputStream(excelFile)) {
             return readRows(is);
@@ -171,6 +394,148 @@ public class ExcelReadUtils {
         return readRows(sheet);
     }
 
+    /**
+     * 流式读取第一个sheet页，内存占用与行数无关，只支持xlsx
+     * 使用完毕需要关闭迭代器
+     */
+    public static ExcelRowIterator iterateRows(String excelFile) {
+        return iterateRows(new File(excelFile));
+    }
+
+    /**
+     * 流式读取第一个sheet页，内存占用与行数无关，只支持xlsx
+     * 使用完毕需要关闭迭代器
+     */
+    public static ExcelRowIterator iterateRows(File file) {
+        return ExcelRowIterator.open(file);
+    }
+
+    /**
+     * 流式读取第一个sheet页，只支持xlsx
+     * 可通过options设置共享字符串写入临时文件的阈值等
+     */
+    public static ExcelRowIterator iterateRows(File file, ExcelReadOptions options) {
+        return ExcelRowIterator.open(file, options);
+    }
+
+    /**
+     * 按名称流式读取sheet页，只支持xlsx
+     * 使用完毕需要关闭迭代器
+     */
+    public static ExcelRowIterator iterateRows(File file, String sheetName) {
+        return ExcelRowIterator.open(file, sheetName, ExcelReadOptions.defaults());
+    }
+
+    /**
+     * 按下标流式读取sheet页，从0开始，只支持xlsx
+     * 使用完毕需要关闭迭代器
+     */
+    public static ExcelRowIterator iterateRows(File file, int sheetIndex) {
+        return ExcelRowIterator.open(file, sheetIndex, ExcelReadOptions.defaults());
+    }
+
+    /**
+     * 流式读取指定名称的sheet页，只支持xlsx，结果与readRowsByPathAndSheetName一致，按参数顺序排列
+     * 文件只打开一次，共享字符串和样式在各sheet页之间共用
+     *
+     * @param file       文件
+     * @param sheetNames sheet页名称
+     * @return sheet页名称及内容
+     */
+    public static Map<String, List<List<Object>>> readRowsBySheetNames(File file, Collection<String> sheetNames) {
+        try (ExcelPackageReader packageReader = new ExcelPackageReader(file)) {
+            Map<String, ExcelPackageReader.SheetPart> sheets = Maps.newHashMap();
+            for (ExcelPackageReader.SheetPart sheet : packageReader.getSheets()) {
+                sheets.putIfAbsent(sheet.getName(), sheet);
+            }
+            Map<String, List<List<Object>>> map = Maps.newLinkedHashMap();
+            for (String sheetName : sheetNames) {
+                ExcelPackageReader.SheetPart sheet = sheets.get(sheetName);
+                if (sheet == null) {
+                    throw new ServiceException(sheetName + "，该sheet页名称没找到");
+                }
+                map.put(sheetName, readSheet(packageReader, sheet));
+            }
+            return map;
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Excel解析失败", e);
+            throw new ServiceException(e);
+        }
+    }
+
+    /**
+     * 流式读取第一个sheet页，需要配合try-with-resources关闭Stream
+     */
+    public static Stream<List<Object>> streamRows(String excelFile) {
+        return iterateRows(excelFile).stream();
+    }
+
+    /**
+     * 流式读取并按批回调，只支持xlsx
+     * 在解析线程中直接回调，监听器处理完一批之前不会继续解析，内存中只保留一批数据
+     *
+     * @param file       文件
+     * @param firstIndex 起始行
+     * @param aimClass   对象class
+     * @param batchSize  每批数量
+     * @param listener   监听器
+     * @return 读取的总行数
+     */
+    public static <T> long readInBatches(File file, int firstIndex, Class<T> aimClass, int batchSize, BatchRowListener<T> listener) {
+        Validate.isTrue(batchSize > 0, "batchSize must be positive");
+        long count = 0;
+        try (ExcelRowIterator iterator = iterateRows(file)) {
+            List<T> batch = new ArrayList<>(batchSize);
+            while (iterator.hasNext()) {
+                List<Object> row = iterator.next();
+                if (iterator.getRowNum() < firstIndex) {
+                    continue;
+                }
+                batch.add(getEntityByRow(row, aimClass));
+                count++;
+                if (batch.size() == batchSize) {
+                    listener.onBatch(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                listener.onBatch(batch);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 流式读取并按批回调，只支持xlsx
+     * 解析与处理并行：批次交给consumerExecutor中的单个线程按顺序处理，最多积压queueCapacity个批次，
+     * 积压满时阻塞解析线程，内存占用不超过(queueCapacity + 2)个批次
+     *
+     * @param file             文件
+     * @param firstIndex       起始行
+     * @param aimClass         对象class
+     * @param batchSize        每批数量
+     * @param listener         监听器
+     * @param consumerExecutor 执行监听器的线程池
+     * @param queueCapacity    最多积压的批次数
+     * @return 读取的总行数
+     */
+    public static <T> long readInBatches(File file, int firstIndex, Class<T> aimClass, int batchSize, BatchRowListener<T> listener,
+                                         Executor consumerExecutor, int queueCapacity) {
+        Validate.isTrue(queueCapacity > 0, "queueCapacity must be positive");
+        AsyncBatchRowListener<T> asyncListener = new AsyncBatchRowListener<>(listener, consumerExecutor, queueCapacity);
+        long count;
+        try {
+            count = readInBatches(file, firstIndex, aimClass, batchSize, asyncListener);
+        } catch (RuntimeException e) {
+            asyncListener.cancel();
+            throw e;
+        }
+        asyncListener.finish();
+        return count;
+    }
+
     /**
      * 获取当前sheet里的最大列数
      */
@@ -195,6 +560,69 @@ public class ExcelReadUtils {
         return readRows(sheet, 0, rowCount);
     }
 
+    /**
+     * 按列读取整个sheet页，数值、日期不装箱，重复的字符串只保存一份
+     * 内容与readRows(Sheet)一致，asRows()可以当作readRows的结果使用
+     */
+    public static SheetTable readTable(Sheet sheet) {
+        return readTable(sheet, ExcelReadOptions.defaults());
+    }
+
+    /**
+     * 按列读取整个sheet页，选项中的公式读取方式生效，字符串总是去重
+     */
+    public static SheetTable readTable(Sheet sheet, ExcelReadOptions options) {
+        SheetTable table = new SheetTable();
+        // 字符串最终都保存在表的字典中，这里的字典只用来让每个不同的字符串只trim一次
+        CellReadContext context = CellReadContext.of(sheet.getWorkbook(), new ExcelReadOptions()
+                .setStringDictionarySize(Integer.MAX_VALUE).setFormulaMode(options.getFormulaMode()));
+        MergedRegionIndex mergedRegions = MergedRegionIndex.of(sheet, range -> readCell(getCell(sheet, range.getFirstRow(), range.getFirstColumn()), context));
+        int maxCellIndex = 0;
+        for (int i = 0; i <= sheet.getLastRowNum(); i++) {
+            Row row = sheet.getRow(i);
+            if (row == null) {
+                continue;
+            }
+            int index = table.appendRow(i);
+            int lastCellNum = Math.max(row.getLastCellNum(), mergedRegions.getLastCellNum(i));
+            for (int j = 0; j < lastCellNum; j++) {
+                MergedRegionIndex.Region region = mergedRegions.find(i, j);
+                if (region != null) {
+                    table.set(index, j, region.getValue());
+                } else {
+                    readCell(row.getCell(j), context, table, index, j);
+                }
+            }
+            maxCellIndex = Math.max(maxCellIndex, lastCellNum);
+        }
+        // 与readRows一致，取的是下标，所以要+1
+        table.ensureColumnCount(maxCellIndex + 1);
+        return table;
+    }
+
+    /**
+     * 流式按列读取第一个sheet页，只支持xlsx，内容与readRows一致
+     * 每行读出后立即写入SheetTable，内存占用只有按列保存的数据
+     */
+    public static SheetTable readTable(File file) {
+        return readTable(file, ExcelReadOptions.defaults());
+    }
+
+    /**
+     * 按读取选项流式按列读取第一个sheet页
+     */
+    public static SheetTable readTable(File file, ExcelReadOptions options) {
+        try (ExcelPackageReader packageReader = new ExcelPackageReader(file, options);
+             ExcelSheetReader reader = packageReader.openFirstSheet()) {
+            return reader.readTable();
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Excel解析失败", e);
+            throw new ServiceException(e);
+        }
+    }
+
     /**
      * 根据路径读取指定sheet页的Excel内容
      */
@@ -228,24 +656,38 @@ public class ExcelReadUtils {
      * 从Excel读Cell
      */
     private static Object readCell(Cell cell) {
+        return cell == null ? null : readCell(cell, CellReadContext.of(cell.getSheet().getWorkbook()));
+    }
+
+    /**
+     * 从Excel读Cell，日期格式按样式缓存判断，设置了字典时字符串通过字典去重
+     */
+    private static Object readCell(Cell cell, CellReadContext context) {
         if (cell == null) {
             return null;
         }
         try {
+            DateFormatCache dateFormats = context.getDateFormats();
             switch (cell.getCellType()) {
                 case Cell.CELL_TYPE_STRING:
+                    if (context.getDictionary() != null) {
+                        return readString(cell, context.getDictionary());
+                    }
                     String str = cell.getRichStringCellValue().getString();
                     return StringUtils.trim(str);
                 case Cell.CELL_TYPE_NUMERIC:
-                    if (DateUtil.isCellDateFormatted(cell)) {
-                        return cell.getDateCellValue();
+                    if (dateFormats.isCellDateFormatted(cell)) {
+                        return dateFormats.getDateCellValue(cell);
                     }
                     return cell.getNumericCellValue();
                 case Cell.CELL_TYPE_BOOLEAN:
                     return cell.getBooleanCellValue();
                 case Cell.CELL_TYPE_FORMULA:
-                    if (DateUtil.isCellDateFormatted(cell)) {
-                        return cell.getDateCellValue();
+                    if (context.getFormulaMode() != FormulaMode.FORMULA) {
+                        return readFormulaResult(cell, context);
+                    }
+                    if (dateFormats.isCellDateFormatted(cell)) {
+                        return dateFormats.getDateCellValue(cell);
                     }
                     return cell.getCellFormula();
                 case Cell.CELL_TYPE_BLANK:
@@ -262,6 +704,86 @@ public class ExcelReadUtils {
         }
     }
 
+    /**
+     * 读取公式保存的计算结果，没有保存结果时按公式读取方式计算或返回空值
+     */
+    private static Object readFormulaResult(Cell cell, CellReadContext context) {
+        DateFormatCache dateFormats = context.getDateFormats();
+        if (!hasCachedResult(cell)) {
+            if (context.getFormulaMode() != FormulaMode.CACHED_RESULT_OR_EVALUATE) {
+                return "";
+            }
+            CellValue value = context.evaluate(cell);
+            switch (value == null ? Cell.CELL_TYPE_BLANK : value.getCellType()) {
+                case Cell.CELL_TYPE_NUMERIC:
+                    double number = value.getNumberValue();
+                    return dateFormats.isDateFormatted(cell, number) ? dateFormats.toDate(number) : number;
+                case Cell.CELL_TYPE_STRING:
+                    return trim(value.getStringValue(), context);
+                case Cell.CELL_TYPE_BOOLEAN:
+                    return value.getBooleanValue();
+                default:
+                    return "";
+            }
+        }
+        switch (cell.getCachedFormulaResultType()) {
+            case Cell.CELL_TYPE_NUMERIC:
+                if (dateFormats.isCellDateFormatted(cell)) {
+                    return dateFormats.getDateCellValue(cell);
+                }
+                return cell.getNumericCellValue();
+            case Cell.CELL_TYPE_STRING:
+                return trim(cell.getRichStringCellValue().getString(), context);
+            case Cell.CELL_TYPE_BOOLEAN:
+                return cell.getBooleanCellValue();
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * xlsx中没有v节点的公式没有保存计算结果(如程序生成后未在Excel中打开过的文件)，xls总是保存计算结果
+     */
+    private static boolean hasCachedResult(Cell cell) {
+        return !(cell instanceof XSSFCell) || ((XSSFCell) cell).getCTCell().isSetV();
+    }
+
+    private static String trim(String str, CellReadContext context) {
+        return context.getDictionary() != null ? context.getDictionary().trim(str) : StringUtils.trim(str);
+    }
+
+    /**
+     * 把单元格直接写入SheetTable，数值不装箱，其余类型与readCell一致
+     */
+    private static void readCell(Cell cell, CellReadContext context, SheetTable table, int row, int column) {
+        if (cell != null && cell.getCellType() == Cell.CELL_TYPE_NUMERIC && !context.getDateFormats().isCellDateFormatted(cell)) {
+            table.setNumber(row, column, cell.getNumericCellValue());
+        } else {
+            table.set(row, column, readCell(cell, context));
+        }
+    }
+
+    /**
+     * xlsx中引用共享字符串的单元格按下标查字典，同一个共享字符串只取一次文本
+     */
+    private static String readString(Cell cell, StringDictionary dictionary) {
+        if (cell instanceof XSSFCell) {
+            CTCell ctCell = ((XSSFCell) cell).getCTCell();
+            if (ctCell.getT() == STCellType.S && ctCell.isSetV()) {
+                return dictionary.sharedString(Integer.parseInt(ctCell.getV()), index -> cell.getRichStringCellValue().getString());
+            }
+        }
+        return dictionary.trim(cell.getRichStringCellValue().getString());
+    }
+
+    /**
+     * 获取单元格，行不存在时返回null
+     */
+    private static Cell getCell(Sheet sheet, int rowIndex, int columnIndex) {
+        Row row = sheet.getRow(rowIndex);
+        return row == null ? null : row.getCell(columnIndex);
+    }
+
     /**
      * 获取列值
      */
@@ -278,6 +800,7 @@ public class ExcelReadUtils {
 
     /**
      * 判断指定的单元格是否是合并单元格
+     * 每次调用都会遍历所有合并区域，批量读取时请使用readRows
      *
      * @param row    行下标
      * @param column 列下标
@@ -336,7 +859,8 @@ public class ExcelReadUtils {
     }
 
     /**
-     * 根据Excel输入流转换成对象列表
+     * 根据上传的Excel文件转换成对象列表
+     * 上传文件先写入临时文件再随机访问读取，读取结束后删除
      *
      * @param uploadFile 上传上来的Excel文件
      * @param firstIndex 起始行
@@ -345,7 +869,55 @@ public class ExcelReadUtils {
      * @return 对象列表
      */
     public static <T> List<T> parseFromExcel(MultipartFile uploadFile, int firstIndex, Class<T> aimClass) {
-        return parseObjectFromExcelInputStream(getWorkbook(uploadFile), firstIndex, aimClass);
+        return readUploadFile(uploadFile, workbook -> parseObjectFromExcelInputStream(workbook, firstIndex, aimClass));
+    }
+
+    /**
+     * 读取上传文件
+     * 按输入流创建工作簿时POI会把整个压缩包缓存在内存中，这里先把上传文件转存到临时文件
+     * (已落盘的上传文件由容器直接移动，不再复制)，再以只读方式打开，压缩包按需随机读取
+     *
+     * @param uploadFile 上传上来的Excel文件
+     * @param reader     读取工作簿
+     * @return 读取结果
+     */
+    private static <R> R readUploadFile(MultipartFile uploadFile, Function<Workbook, R> reader) {
+        File tempDir = null;
+        try {
+            tempDir = Files.createTempDirectory("easy-poi-upload").toFile();
+            File file = new File(tempDir, "upload");
+            uploadFile.transferTo(file);
+            Workbook workbook = WorkbookFactory.create(file, null, true);
+            try {
+                return reader.apply(workbook);
+            } finally {
+                closeReadOnlyWorkbook(workbook);
+            }
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Excel转换失败", e);
+            throw new ServiceException(e.getMessage());
+        } finally {
+            if (tempDir != null && !FileSystemUtils.deleteRecursively(tempDir)) {
+                log.warn("临时文件删除失败：{}", tempDir);
+            }
+        }
+    }
+
+    /**
+     * 只读打开的xlsx不需要保存，直接还原，close会尝试保存并打印警告
+     */
+    private static void closeReadOnlyWorkbook(Workbook workbook) {
+        try {
+            if (workbook instanceof XSSFWorkbook) {
+                ((XSSFWorkbook) workbook).getPackage().revert();
+            } else {
+                workbook.close();
+            }
+        } catch (IOException e) {
+            log.warn("工作簿关闭失败", e);
+        }
     }
 
     /**
@@ -440,13 +1012,9 @@ public class ExcelReadUtils {
     }
 
     private static <T> T getEntityByObjectRow(Object row, Class<T> ct) {
-        T entity;
-        try {
-            entity = ct.newInstance();
-        } catch (Exception e) {
-            log.error(ct.getSimpleName() + "实例化失败！", e);
-            throw new ServiceException(ct.getSimpleName() + "实例化失败！" + e.getMessage());
-        }
+        // 构造函数、字段及对应的列每个类只解析一次
+        RowMappingPlan<T> plan = RowMappingPlan.of(ct);
+        T entity = plan.newInstance();
 
         List<String> keys = null;
         List<String> values = null;
@@ -457,27 +1025,30 @@ public class ExcelReadUtils {
             values = Lists.newArrayList(map.values());
         }
 
-        Field[] fields = ct.getDeclaredFields();
-        for (int j = 0, ii = 0; j < fields.length; j++) {
+        // 日期格式判断按工作簿缓存，每行只取一次
+        CellReadContext context = row instanceof Row ? CellReadContext.of(((Row) row).getSheet().getWorkbook()) : null;
+        int ii = 0;
+        for (RowMappingPlan.FieldMapping field : plan.getFields()) {
+            int j = field.getColumn();
             Object value = null;
             if (row instanceof Map) {
-                String cellPrefix = getExcelCellPrefixByIndex(j);
-                if (!keys.get(ii).startsWith(cellPrefix)) {
+                if (ii >= keys.size() || !keys.get(ii).startsWith(field.getCellPrefix())) {
                     continue;
                 }
                 value = values.get(ii);
                 ii++;
             } else if (row instanceof List) {
-                value = ((List) row).get(j);
+                List<?> list = (List<?>) row;
+                value = j < list.size() ? list.get(j) : null;
             } else if (row instanceof Row) {
-                value = readCell(((Row) row).getCell(j));
+                value = readCell(((Row) row).getCell(j), context);
             }
 
-            if (null == value || StringUtils.isBlank(value.toString())) {
+            if (null == value || (value instanceof String && StringUtils.isBlank((String) value))) {
                 continue;
             }
-            Field field = fields[j];
-            ReflectionUtil.setFieldValue(entity, field.getName(), initValueByType(value.toString(), field.getType()));
+            // 按单元格原始类型直接转换，不再经过字符串
+            field.set(entity, field.convert(value));
         }
         return entity;
     }
@@ -509,48 +1080,7 @@ public class ExcelReadUtils {
         if (StringUtils.isBlank(str)) {
             return null;
         }
-        str = StringUtils.trim(str);
-
-        Object value;
-        if (typeClass.equals(int.class) || typeClass.equals(Integer.class)) {
-            try {
-                value = Integer.parseInt(removeErrorSign(str));
-            } catch (Exception e) {
-                throw new ServiceException(str + "该值不能转换成Integer类型");
-            }
-        } else if (typeClass.equals(long.class) || typeClass.equals(Long.class)) {
-            try {
-                value = Long.parseLong(removeErrorSign(str));
-            } catch (Exception e) {
-                throw new ServiceException(str + "该值不能转换成Long类型");
-            }
-        } else if (typeClass.equals(double.class) || typeClass.equals(Double.class)) {
-            try {
-                value = Double.parseDouble(str);
-            } catch (Exception e) {
-                throw new ServiceException(str + "该值不能转换成Double类型");
-            }
-        } else if (typeClass.equals(float.class) || typeClass.equals(Float.class)) {
-            try {
-                value = Float.parseFloat(str);
-            } catch (Exception e) {
-                throw new ServiceException(str + "该值不能转换成Float类型");
-            }
-            //} else if (typeClass.equals(Date.class)) {
-            //value = DateFormatUtil.parseDate(str);
-            //if (null == value) {
-            //    throw new ServiceException(str + "该值不能转换成Date类型");
-            //}
-        } else if (typeClass.equals(BigDecimal.class)) {
-            try {
-                value = new BigDecimal(str);
-            } catch (Exception e) {
-                throw new ServiceException(str + "该值不能转换成BigDecimal类型");
-            }
-        } else {
-            value = str;
-        }
-        return value;
+        return CellValueConverters.convert(str, typeClass);
     }
 
     /**
@@ -560,12 +1090,122 @@ public class ExcelReadUtils {
      * @param handler  中间处理
      */
     public static void readExcelByFile(String filename, XSSFSheetXMLHandler.SheetContentsHandler handler) {
+        readExcelByFile(filename, ExcelReadOptions.defaults(), handler);
+    }
+
+    /**
+     * 按读取选项读取第一个sheet页
+     * 共享字符串的读取方式(写入临时文件、按需解析)和列投影与流式读取一致
+     *
+     * @param filename 文件路径及名称
+     * @param options  读取选项
+     * @param handler  中间处理
+     */
+    public static void readExcelByFile(String filename, ExcelReadOptions options, XSSFSheetXMLHandler.SheetContentsHandler handler) {
+        readExcelBySheets(filename, sheetNames -> Collections.singleton(0), options.getColumnProjection(), options, name -> handler);
+    }
+
+    /**
+     * 读取第一个sheet页的指定列，未选中的单元格在交给XSSFSheetXMLHandler之前就被丢弃
+     * 中间处理收到的单元格引用仍是原始位置，如C5
+     *
+     * @param filename   文件路径及名称
+     * @param projection 列投影
+     * @param handler    中间处理
+     */
+    public static void readExcelByFile(String filename, ColumnProjection projection, XSSFSheetXMLHandler.SheetContentsHandler handler) {
+        readExcelBySheets(filename, sheetNames -> Collections.singleton(0), projection, ExcelReadOptions.defaults(), name -> handler);
+    }
+
+    /**
+     * 按名称读取sheet页
+     *
+     * @param filename  文件路径及名称
+     * @param sheetName sheet页名称
+     * @param handler   中间处理
+     */
+    public static void readExcelByFile(String filename, String sheetName, XSSFSheetXMLHandler.SheetContentsHandler handler) {
+        readExcelBySheetNames(filename, Collections.singletonList(sheetName), name -> handler);
+    }
+
+    /**
+     * 按下标读取sheet页
+     *
+     * @param filename   文件路径及名称
+     * @param sheetIndex sheet页下标，从0开始
+     * @param handler    中间处理
+     */
+    public static void readExcelByFile(String filename, int sheetIndex, XSSFSheetXMLHandler.SheetContentsHandler handler) {
+        readExcelBySheets(filename, sheetNames -> {
+            if (sheetIndex < 0 || sheetIndex >= sheetNames.size()) {
+                throw new ServiceException(sheetIndex + "，该sheet页下标不存在");
+            }
+            return Collections.singleton(sheetIndex);
+        }, null, ExcelReadOptions.defaults(), name -> handler);
+    }
+
+    /**
+     * 读取多个sheet页，按工作簿中的顺序依次解析，文件只打开一次，共享字符串和样式只加载一次
+     *
+     * @param filename       文件路径及名称
+     * @param sheetNames     sheet页名称
+     * @param handlerFactory 根据sheet页名称获取中间处理
+     */
+    public static void readExcelBySheetNames(String filename, Collection<String> sheetNames,
+                                             Function<String, XSSFSheetXMLHandler.SheetContentsHandler> handlerFactory) {
+        readExcelBySheets(filename, allSheetNames -> {
+            Set<Integer> indexes = new HashSet<>();
+            for (String sheetName : sheetNames) {
+                int index = allSheetNames.indexOf(sheetName);
+                if (index < 0) {
+                    throw new ServiceException(sheetName + "，该sheet页名称没找到");
+                }
+                indexes.add(index);
+            }
+            return indexes;
+        }, null, ExcelReadOptions.defaults(), handlerFactory);
+    }
+
+    /**
+     * 读取所有sheet页，按工作簿中的顺序依次解析
+     *
+     * @param filename       文件路径及名称
+     * @param handlerFactory 根据sheet页名称获取中间处理
+     */
+    public static void readExcelByAllSheets(String filename, Function<String, XSSFSheetXMLHandler.SheetContentsHandler> handlerFactory) {
+        readExcelBySheets(filename, sheetNames -> IntStream.range(0, sheetNames.size()).boxed().collect(Collectors.toSet()), null,
+                ExcelReadOptions.defaults(), handlerFactory);
+    }
+
+    /**
+     * 先根据所有sheet页名称选出要读取的下标，再在一次遍历中解析选中的sheet页，未选中的sheet页不会被解压
+     * 共享字符串按读取选项打开，超过大小时写入临时文件，不会全部加载到堆中
+     */
+    private static void readExcelBySheets(String filename, Function<List<String>, Set<Integer>> selector, ColumnProjection projection,
+                                          ExcelReadOptions options, Function<String, XSSFSheetXMLHandler.SheetContentsHandler> handlerFactory) {
         try (OPCPackage pkg = OPCPackage.open(filename, PackageAccess.READ)) {
             XSSFReader xssfReader = new XSSFReader(pkg);
-            try (InputStream is = xssfReader.getSheetsData().next()) {
-                StylesTable styles = xssfReader.getStylesTable();
-                ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
-                processSheet(styles, strings, is, handler);
+            List<String> sheetNames = new ArrayList<>();
+            XSSFReader.SheetIterator nameIterator = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            while (nameIterator.hasNext()) {
+                nameIterator.next().close();
+                sheetNames.add(nameIterator.getSheetName());
+            }
+            Set<Integer> indexes = selector.apply(sheetNames);
+
+            StylesTable styles = xssfReader.getStylesTable();
+            ReadOnlySharedStringsTable strings = SharedStringsTableAdapter.open(pkg, options);
+            try {
+                XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+                for (int i = 0; iterator.hasNext(); i++) {
+                    try (InputStream is = iterator.next()) {
+                        if (indexes.contains(i)) {
+                            processSheet(styles, strings, is, handlerFactory.apply(iterator.getSheetName()), projection);
+                        }
+                    }
+                }
+            } finally {
+                SharedStringsTableAdapter.closeQuietly(strings);
             }
         } catch (ServiceException e) {
             throw e;
@@ -576,15 +1216,20 @@ public class ExcelReadUtils {
 
     /**
      * sheet处理
+     *
+     * @param projection 列投影，为null时读取所有列
      */
-    private static void processSheet(StylesTable styles, ReadOnlySharedStringsTable strings, InputStream sheetInputStream, XSSFSheetXMLHandler.SheetContentsHandler handler) throws SAXException, ParserConfigurationException, IOException {
+    private static void processSheet(StylesTable styles, ReadOnlySharedStringsTable strings, InputStream sheetInputStream,
+                                     XSSFSheetXMLHandler.SheetContentsHandler handler, ColumnProjection projection) throws SAXException, ParserConfigurationException, IOException {
         XMLReader sheetParser = SAXHelper.newXMLReader();
+        XSSFSheetXMLHandler.SheetContentsHandler contentsHandler = handler != null ? handler : new SimpleSheetContentsHandler();
 
-        if (handler != null) {
-            sheetParser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, handler, false));
-        } else {
-            sheetParser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, new SimpleSheetContentsHandler(), false));
+        if (projection != null) {
+            ProjectingSheetFilter filter = new ProjectingSheetFilter(sheetParser, projection);
+            contentsHandler = filter.wrap(contentsHandler);
+            sheetParser = filter;
         }
+        sheetParser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, contentsHandler, false));
 
         sheetParser.parse(new InputSource(sheetInputStream));
     }
@@ -613,6 +1258,19 @@ public class ExcelReadUtils {
 
         private Map<String, String> rowMap;
 
+        /**
+         * 字符串字典，为null时不去重
+         */
+        private final StringDictionary dictionary;
+
+        public SimpleSheetContentsHandler() {
+            this(null);
+        }
+
+        public SimpleSheetContentsHandler(StringDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
         public Map<String, String> getRowMap() {
             return rowMap;
         }
@@ -629,7 +1287,9 @@ public class ExcelReadUtils {
 
         @Override
         public void cell(String cellReference, String formattedValue, XSSFComment comment) {
-            if (null != formattedValue) {
+            if (dictionary != null) {
+                formattedValue = dictionary.trim(formattedValue);
+            } else if (null != formattedValue) {
                 formattedValue = formattedValue.trim();
             }
 
@@ -0,0 +1,182 @@
+package com.ezreal.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 流式行迭代器
+ * 基于XSSFReader逐行解析sheet页，内存中只保留当前行，占用与文件行数无关
+ * 单元格取值与ExcelReadUtils.readRows一致，行宽取sheet页dimension中声明的列数（同readRows一样多补一列空值），
+ * 未声明dimension时按已读到的最大列数补齐；
+ * 合并单元格的值只在左上角单元格上（合并信息位于sheet数据之后，流式读取时无法提前获知）；
+ * 通过ExcelReadOptions设置列投影时，每行只包含选中的列并按投影的顺序排列
+ * 使用完毕必须调用close释放文件，遍历结束时会自动关闭
+ *
+ * @author ezreal
+ */
+@Slf4j
+public class ExcelRowIterator implements Iterator<List<Object>>, Closeable {
+
+    private final ExcelPackageReader packageReader;
+
+    private final ExcelSheetReader sheetReader;
+
+    /**
+     * 设置了列投影时行宽固定为选中的列数，不再补齐
+     */
+    private final boolean projected;
+
+    /**
+     * 当前补齐的列数，未声明dimension时随已读取的行增长
+     */
+    private int cellNum;
+
+    private List<Object> next;
+
+    private int rowNum = -1;
+
+    private boolean closed;
+
+    private ExcelRowIterator(ExcelPackageReader packageReader, ExcelSheetReader sheetReader, boolean projected) {
+        this.packageReader = packageReader;
+        this.sheetReader = sheetReader;
+        this.projected = projected;
+    }
+
+    /**
+     * 打开文件的第一个sheet页
+     */
+    public static ExcelRowIterator open(File file) {
+        return open(file, ExcelReadOptions.defaults());
+    }
+
+    /**
+     * 按指定选项打开文件的第一个sheet页
+     */
+    public static ExcelRowIterator open(File file, ExcelReadOptions options) {
+        return open(file, options, ExcelPackageReader::openFirstSheet);
+    }
+
+    /**
+     * 按名称打开sheet页
+     */
+    public static ExcelRowIterator open(File file, String sheetName, ExcelReadOptions options) {
+        return open(file, options, packageReader -> packageReader.openSheet(packageReader.getSheet(sheetName)));
+    }
+
+    /**
+     * 按下标打开sheet页，从0开始
+     */
+    public static ExcelRowIterator open(File file, int sheetIndex, ExcelReadOptions options) {
+        return open(file, options, packageReader -> packageReader.openSheet(packageReader.getSheet(sheetIndex)));
+    }
+
+    private static ExcelRowIterator open(File file, ExcelReadOptions options, SheetOpener opener) {
+        ExcelPackageReader packageReader = null;
+        try {
+            packageReader = new ExcelPackageReader(file, options);
+            ExcelSheetReader sheetReader = opener.open(packageReader);
+            sheetReader.setProjection(options.getColumnProjection());
+            return new ExcelRowIterator(packageReader, sheetReader, options.getColumnProjection() != null);
+        } catch (Exception e) {
+            if (packageReader != null) {
+                packageReader.close();
+            }
+            if (e instanceof ServiceException) {
+                throw (ServiceException) e;
+            }
+            log.error("Excel解析失败", e);
+            throw new ServiceException(e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (closed) {
+            return false;
+        }
+        try {
+            if (!sheetReader.nextRow()) {
+                close();
+                return false;
+            }
+        } catch (Exception e) {
+            close();
+            throw new ServiceException(e);
+        }
+        next = sheetReader.getRow();
+        if (projected) {
+            next.replaceAll(value -> value == null ? "" : value);
+            return true;
+        }
+        cellNum = Math.max(cellNum, Math.max(sheetReader.getDimensionCellNum(), next.size()));
+        // 与readRows保持一致，补齐到最大列数+1
+        while (next.size() <= cellNum) {
+            next.add(null);
+        }
+        next.replaceAll(value -> value == null ? "" : value);
+        return true;
+    }
+
+    @Override
+    public List<Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<Object> row = next;
+        next = null;
+        rowNum = sheetReader.getRowNum();
+        return row;
+    }
+
+    /**
+     * 最近一次next返回的行下标，从0开始
+     */
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    /**
+     * 转换成Stream，Stream关闭时关闭迭代器
+     */
+    public Stream<List<Object>> stream() {
+        Spliterator<List<Object>> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            sheetReader.close();
+        } catch (Exception e) {
+            log.warn("sheet流关闭失败", e);
+        } finally {
+            packageReader.close();
+        }
+    }
+
+    /**
+     * 从已打开的文件中选择sheet页
+     */
+    @FunctionalInterface
+    private interface SheetOpener {
+
+        ExcelSheetReader open(ExcelPackageReader packageReader) throws Exception;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ezreal.util;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 并行导出时一个sheet页的内容
+ * 行在写入该sheet页的线程中才生成，生成和写入都与其他sheet页并行
+ *
+ * @author ezreal
+ */
+public final class ExcelSheetData<T> {
+
+    private final String sheetName;
+
+    private final Class<T> type;
+
+    private final Supplier<? extends Stream<? extends T>> rows;
+
+    private ExcelWriteOptions options;
+
+    private ExcelSheetData(String sheetName, Class<T> type, Supplier<? extends Stream<? extends T>> rows) {
+        this.sheetName = sheetName;
+        this.type = type;
+        this.rows = rows;
+    }
+
+    /**
+     * @param sheetName sheet页名称
+     * @param type      行的类型
+     * @param rows      行，在写入线程中调用，Stream写完后关闭
+     */
+    public static <T> ExcelSheetData<T> of(String sheetName, Class<T> type, Supplier<? extends Stream<? extends T>> rows) {
+        return new ExcelSheetData<>(sheetName, type, rows);
+    }
+
+    /**
+     * 该sheet页的列、表头、格式，为null时使用导出时传入的选项；工作簿级别的选项(行窗口、临时文件压缩)以导出时传入的为准
+     */
+    public ExcelSheetData<T> withOptions(ExcelWriteOptions options) {
+        this.options = options;
+        return this;
+    }
+
+    String getSheetName() {
+        return sheetName;
+    }
+
+    Class<T> getType() {
+        return type;
+    }
+
+    Stream<? extends T> openRows() {
+        return rows.get();
+    }
+
+    ExcelWriteOptions getOptions() {
+        return options;
+    }
+}
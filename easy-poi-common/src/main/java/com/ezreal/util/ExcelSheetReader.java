@@ -0,0 +1,492 @@
+package com.ezreal.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 单个sheet页的流式解析器
+ * 使用StAX逐行拉取sheet xml，每次只在内存中保留当前行，单元格取值规则与ExcelReadUtils.readCell保持一致
+ *
+ * @author ezreal
+ */
+class ExcelSheetReader implements Closeable {
+
+    private final ExcelPackageReader packageReader;
+
+    private final InputStream sheetInputStream;
+
+    private final XMLStreamReader reader;
+
+    /**
+     * 字符串字典，未开启时为null
+     */
+    private final StringDictionary dictionary;
+
+    /**
+     * dimension中声明的列数，未声明时为-1
+     */
+    private int dimensionCellNum = -1;
+
+    private int rowNum = -1;
+
+    private List<Object> row;
+
+    private boolean finished;
+
+    /**
+     * 列投影，为null时读取所有列
+     */
+    private ColumnProjection projection;
+
+    /**
+     * 共享公式，key为si；只有主单元格保存公式文本，其余单元格按偏移平移得到
+     */
+    private final Map<Integer, SharedFormula> sharedFormulas = new HashMap<>();
+
+    ExcelSheetReader(ExcelPackageReader packageReader, InputStream sheetInputStream) throws XMLStreamException {
+        this.packageReader = packageReader;
+        this.sheetInputStream = sheetInputStream;
+        this.reader = packageReader.createXmlReader(sheetInputStream);
+        this.dictionary = packageReader.newStringDictionary();
+    }
+
+    /**
+     * 读取下一行
+     *
+     * @return 是否还有行
+     */
+    boolean nextRow() throws XMLStreamException {
+        if (finished) {
+            return false;
+        }
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("row".equals(name)) {
+                    readRow();
+                    return true;
+                }
+                if ("dimension".equals(name)) {
+                    dimensionCellNum = parseDimension(reader.getAttributeValue(null, "ref"));
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(reader.getLocalName())) {
+                // sheetData之后只剩合并单元格等信息，不再继续解析
+                break;
+            }
+        }
+        finished = true;
+        row = null;
+        return false;
+    }
+
+    /**
+     * 设置列投影，只对nextRow生效；按表头名称指定时以读到的第一行作为表头
+     */
+    void setProjection(ColumnProjection projection) {
+        this.projection = projection;
+    }
+
+    /**
+     * 当前行下标，从0开始
+     */
+    int getRowNum() {
+        return rowNum;
+    }
+
+    /**
+     * 当前行内容，只包含到最后一个单元格为止；设置了列投影时按投影的顺序排列，长度为选中的列数
+     */
+    List<Object> getRow() {
+        return row;
+    }
+
+    /**
+     * dimension中声明的列数，与Row.getLastCellNum含义相同，未声明时为-1
+     */
+    int getDimensionCellNum() {
+        return dimensionCellNum;
+    }
+
+    /**
+     * 读取剩余所有行，合并单元格取左上角的值，并按最大列数补齐，结果与ExcelReadUtils.readRows(Sheet)一致
+     */
+    List<List<Object>> readAllRows() throws XMLStreamException {
+        return readRows(Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * 读取到下标为lastRowIndex的行为止，按最大列数补齐
+     *
+     * @param lastRowIndex      最后一行的下标，从0开始
+     * @param fillMergedRegions 是否按左上角的值回填合并单元格；合并信息位于sheetData之后，回填时要继续解析到sheet页末尾，
+     *                          为false时读到lastRowIndex后立即停止，合并单元格只有左上角有值
+     */
+    List<List<Object>> readRows(int lastRowIndex, boolean fillMergedRegions) throws XMLStreamException {
+        List<List<Object>> rows = new ArrayList<>();
+        List<Integer> rowNums = new ArrayList<>();
+        while (nextRow() && rowNum <= lastRowIndex) {
+            rows.add(row);
+            rowNums.add(rowNum);
+        }
+        List<CellRangeAddress> ranges = fillMergedRegions ? readMergedRegions() : Collections.emptyList();
+        MergedRegionIndex mergedRegions = MergedRegionIndex.of(ranges, ranges.isEmpty() ? null : anchorLoader(rows, rowNums));
+
+        int maxCellIndex = 0;
+        List<List<Object>> rowList = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            List<Object> cells = rows.get(i);
+            int lastCellNum = Math.max(cells.size(), mergedRegions.getLastCellNum(rowNums.get(i)));
+            List<Object> cellList = new ArrayList<>(lastCellNum + 1);
+            for (int j = 0; j < lastCellNum; j++) {
+                Object cellValue;
+                MergedRegionIndex.Region region = mergedRegions.find(rowNums.get(i), j);
+                if (region != null) {
+                    cellValue = region.getValue();
+                } else {
+                    cellValue = j < cells.size() ? cells.get(j) : null;
+                }
+                cellList.add(cellValue == null ? "" : cellValue);
+            }
+            maxCellIndex = Math.max(maxCellIndex, lastCellNum);
+            rowList.add(cellList);
+        }
+        // 与readRows一致，取的是下标，所以要+1
+        for (List<Object> cellList : rowList) {
+            while (cellList.size() <= maxCellIndex) {
+                cellList.add("");
+            }
+        }
+        return rowList;
+    }
+
+    /**
+     * 读取剩余所有行并按列保存，内容与readAllRows一致
+     * 每行读出后立即写入SheetTable，不保留行对象；合并单元格在所有行读完后按左上角的值回填
+     */
+    SheetTable readTable() throws XMLStreamException {
+        SheetTable table = new SheetTable();
+        while (nextRow()) {
+            int index = table.appendRow(rowNum);
+            for (int j = 0; j < row.size(); j++) {
+                table.set(index, j, row.get(j));
+            }
+        }
+        List<CellRangeAddress> ranges = readMergedRegions();
+        MergedRegionIndex mergedRegions = MergedRegionIndex.of(ranges, range -> {
+            int index = indexOfRowNum(table, range.getFirstRow());
+            return index < 0 ? null : table.get(index, range.getFirstColumn());
+        });
+        int maxCellIndex = table.getColumnCount();
+        for (int i = 0; i < table.getRowCount() && !ranges.isEmpty(); i++) {
+            int lastCellNum = mergedRegions.getLastCellNum(table.getRowNum(i));
+            for (int j = 0; j < lastCellNum; j++) {
+                MergedRegionIndex.Region region = mergedRegions.find(table.getRowNum(i), j);
+                if (region != null) {
+                    table.set(i, j, region.getValue());
+                }
+            }
+            maxCellIndex = Math.max(maxCellIndex, lastCellNum);
+        }
+        // 与readRows一致，取的是下标，所以要+1
+        table.ensureColumnCount(maxCellIndex + 1);
+        return table;
+    }
+
+    /**
+     * 行下标递增，二分查找
+     */
+    private static int indexOfRowNum(SheetTable table, int rowNum) {
+        int low = 0;
+        int high = table.getRowCount() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = table.getRowNum(mid);
+            if (value < rowNum) {
+                low = mid + 1;
+            } else if (value > rowNum) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 读取合并单元格，合并信息位于sheetData之后，需要在所有行读取完之后调用
+     */
+    List<CellRangeAddress> readMergedRegions() throws XMLStreamException {
+        List<CellRangeAddress> ranges = new ArrayList<>();
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "mergeCell".equals(reader.getLocalName())) {
+                ranges.add(CellRangeAddress.valueOf(reader.getAttributeValue(null, "ref")));
+            } else if (event == XMLStreamConstants.END_ELEMENT && "mergeCells".equals(reader.getLocalName())) {
+                break;
+            }
+        }
+        return ranges;
+    }
+
+    private static Function<CellRangeAddress, Object> anchorLoader(List<List<Object>> rows, List<Integer> rowNums) {
+        Map<Integer, List<Object>> rowMap = new HashMap<>(rows.size() * 4 / 3 + 1);
+        for (int i = 0; i < rows.size(); i++) {
+            rowMap.put(rowNums.get(i), rows.get(i));
+        }
+        return range -> {
+            List<Object> cells = rowMap.get(range.getFirstRow());
+            return cells == null || range.getFirstColumn() >= cells.size() ? null : cells.get(range.getFirstColumn());
+        };
+    }
+
+    private void readRow() throws XMLStreamException {
+        String r = reader.getAttributeValue(null, "r");
+        rowNum = r == null ? rowNum + 1 : Integer.parseInt(r) - 1;
+        if (projection != null && projection.isResolved()) {
+            readProjectedRow();
+            return;
+        }
+        row = new ArrayList<>();
+        int column = -1;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "c".equals(reader.getLocalName())) {
+                String ref = reader.getAttributeValue(null, "r");
+                column = ref == null ? column + 1 : getColumnIndex(ref);
+                Object value = readCell(column);
+                while (row.size() < column) {
+                    row.add(null);
+                }
+                row.add(value);
+            } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(reader.getLocalName())) {
+                break;
+            }
+        }
+        if (projection != null) {
+            // 第一行作为表头确定列下标
+            projection = projection.resolve(row);
+            row = projection.project(row);
+        }
+    }
+
+    /**
+     * 只读取选中的列，其余单元格直接跳过，不查共享字符串也不解析数值
+     */
+    private void readProjectedRow() throws XMLStreamException {
+        row = new ArrayList<>(Collections.nCopies(projection.size(), null));
+        int maxColumn = projection.getMaxColumn();
+        int column = -1;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "c".equals(reader.getLocalName())) {
+                String ref = reader.getAttributeValue(null, "r");
+                column = ref == null ? column + 1 : getColumnIndex(ref);
+                int slot = column > maxColumn ? -1 : projection.slotOf(column);
+                if (slot < 0) {
+                    skipCell(column);
+                } else {
+                    row.set(slot, readCell(column));
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(reader.getLocalName())) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 跳过c节点，只记录其中的共享公式，结束时停在c的结束标签上
+     */
+    private void skipCell(int column) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "f".equals(reader.getLocalName())) {
+                readFormula(column);
+            } else if (event == XMLStreamConstants.END_ELEMENT && "c".equals(reader.getLocalName())) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 读取f节点，共享公式的主单元格记录公式文本，其余单元格返回平移后的公式，与XSSFCell.getCellFormula一致
+     */
+    private String readFormula(int column) throws XMLStreamException {
+        String index = "shared".equals(reader.getAttributeValue(null, "t")) ? reader.getAttributeValue(null, "si") : null;
+        boolean master = index != null && reader.getAttributeValue(null, "ref") != null;
+        String formula = reader.getElementText();
+        if (index == null) {
+            return formula;
+        }
+        Integer key = Integer.valueOf(index);
+        if (master && !formula.isEmpty()) {
+            sharedFormulas.put(key, new SharedFormula(formula, rowNum, column));
+            return formula;
+        }
+        SharedFormula sharedFormula = sharedFormulas.get(key);
+        return sharedFormula == null ? formula : sharedFormula.formulaAt(rowNum, column);
+    }
+
+    /**
+     * 读取c节点，结束时停在c的结束标签上
+     */
+    private Object readCell(int column) throws XMLStreamException {
+        String type = reader.getAttributeValue(null, "t");
+        String style = reader.getAttributeValue(null, "s");
+        String value = null;
+        String formula = null;
+        String inlineText = null;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("v".equals(name)) {
+                    value = reader.getElementText();
+                } else if ("f".equals(name)) {
+                    formula = readFormula(column);
+                } else if ("is".equals(name)) {
+                    inlineText = readInlineString();
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "c".equals(reader.getLocalName())) {
+                break;
+            }
+        }
+        int styleIndex = style == null ? 0 : Integer.parseInt(style);
+
+        if (formula != null) {
+            if (packageReader.getFormulaMode() == FormulaMode.FORMULA) {
+                // 与readRows一致：日期格式的公式返回日期，其余返回公式本身
+                if (isNumericType(type) && StringUtils.isNotEmpty(value)) {
+                    double number = Double.parseDouble(value);
+                    if (packageReader.isDateFormatted(styleIndex, number)) {
+                        return packageReader.toDate(number);
+                    }
+                }
+                return formula;
+            }
+            // 读取保存的计算结果，与普通单元格的处理相同；流式读取无法计算公式，没有保存结果时按空值处理
+            if (value == null) {
+                return "";
+            }
+        }
+        if (type == null) {
+            return readNumber(value, styleIndex);
+        }
+        switch (type) {
+            case "s":
+                if (value == null) {
+                    return "";
+                }
+                if (dictionary != null) {
+                    return dictionary.sharedString(Integer.parseInt(value), packageReader::getSharedString);
+                }
+                return StringUtils.trim(packageReader.getSharedString(Integer.parseInt(value)));
+            case "inlineStr":
+                return trim(StringUtils.defaultString(inlineText));
+            case "str":
+                return trim(StringUtils.defaultString(value));
+            case "b":
+                return "1".equals(value) || "true".equalsIgnoreCase(value);
+            case "e":
+                return "";
+            default:
+                return readNumber(value, styleIndex);
+        }
+    }
+
+    private String trim(String value) {
+        return dictionary != null ? dictionary.trim(value) : StringUtils.trim(value);
+    }
+
+    private Object readNumber(String value, int styleIndex) {
+        if (StringUtils.isEmpty(value)) {
+            return "";
+        }
+        double number = Double.parseDouble(value);
+        if (packageReader.isDateFormatted(styleIndex, number)) {
+            return packageReader.toDate(number);
+        }
+        return number;
+    }
+
+    /**
+     * 读取内联字符串，跳过拼音(rPh)部分
+     */
+    private String readInlineString() throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int phoneticDepth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("rPh".equals(name)) {
+                    phoneticDepth++;
+                } else if ("t".equals(name) && phoneticDepth == 0) {
+                    text.append(reader.getElementText());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("rPh".equals(name)) {
+                    phoneticDepth--;
+                } else if ("is".equals(name)) {
+                    break;
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    private static boolean isNumericType(String type) {
+        return type == null || "n".equals(type);
+    }
+
+    /**
+     * 根据单元格引用获取列下标，如AB12返回27
+     */
+    static int getColumnIndex(String cellReference) {
+        int column = 0;
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * 解析dimension，如A1:D10返回4
+     */
+    private static int parseDimension(String ref) {
+        if (StringUtils.isEmpty(ref)) {
+            return -1;
+        }
+        String last = ref.substring(ref.indexOf(':') + 1);
+        return getColumnIndex(last) + 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            sheetInputStream.close();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.ezreal.util;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.apache.poi.ss.SpreadsheetVersion;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 写入选项
+ *
+ * @author ezreal
+ */
+@Data
+@Accessors(chain = true)
+public class ExcelWriteOptions {
+
+    /**
+     * 与SXSSFWorkbook默认值一致
+     */
+    public static final int DEFAULT_ROW_ACCESS_WINDOW_SIZE = 100;
+
+    /**
+     * xlsx每个sheet页的最大行数(包含表头)
+     */
+    public static final int MAX_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    /**
+     * 内存中保留的行数，超出的行写出(并行写入sheet页时写入临时文件)，之后不能再修改；堆占用与该值成正比，与总行数无关
+     */
+    private int rowAccessWindowSize = DEFAULT_ROW_ACCESS_WINDOW_SIZE;
+
+    /**
+     * 临时文件是否gzip压缩，百万行时临时文件可以从几百M降到几十M，代价是写入时多一些CPU；只有并行写入sheet页时使用临时文件
+     */
+    private boolean compressTempFiles = true;
+
+    /**
+     * sheet页名称，换sheet页后依次加上_2、_3...
+     */
+    private String sheetName = "Sheet1";
+
+    /**
+     * 每个sheet页的最大行数(包含表头)，超过后换到新的sheet页并重复表头；默认为xlsx的上限1048576
+     */
+    private int maxRowsPerSheet = MAX_ROWS_PER_SHEET;
+
+    /**
+     * 每个工作簿的最大sheet页数，0表示不限制；超过后writeZip换到新的工作簿，write抛出异常
+     */
+    private int maxSheetsPerWorkbook;
+
+    /**
+     * 导出的属性名，按顺序对应列；为null时导出所有非静态字段，顺序与读取时字段对应列的顺序一致
+     */
+    private List<String> columns;
+
+    /**
+     * 表头，与导出的列一一对应；为null时使用属性名
+     */
+    private List<String> headers;
+
+    /**
+     * 是否写表头
+     */
+    private boolean writeHeader = true;
+
+    /**
+     * 表头样式，为null时不设置
+     */
+    private CellStyleSpec headerStyle = new CellStyleSpec().setBold(true);
+
+    /**
+     * 属性名 -> 数据格式，如amount -> #,##0.00；日期列设置后覆盖默认的日期格式
+     * 同一格式的列共用一个样式
+     */
+    private Map<String, String> columnFormats;
+
+    /**
+     * Date和LocalDateTime的显示格式
+     */
+    private String dateTimeFormat = "yyyy-mm-dd hh:mm:ss";
+
+    /**
+     * LocalDate的显示格式
+     */
+    private String dateFormat = "yyyy-mm-dd";
+
+    public static ExcelWriteOptions defaults() {
+        return new ExcelWriteOptions();
+    }
+}
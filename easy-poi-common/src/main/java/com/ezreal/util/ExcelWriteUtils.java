@@ -0,0 +1,324 @@
+package com.ezreal.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 基于SXSSFWorkbook的流式导出
+ * 行从Iterator/Stream中逐个取出，内存中只保留rowAccessWindowSize行，堆占用与总行数无关；
+ * 超出窗口的行直接写入输出流中sheet页的zip条目，不经过临时文件，第一批行写出时文件就开始输出，样式表等其余部分在最后写出
+ * 超过sheet页行数时自动换sheet页，导出成zip时还可以换工作簿；互相独立的多个sheet页可以并行写入
+ *
+ * @author ezreal
+ */
+@Slf4j
+public class ExcelWriteUtils {
+
+    private static final int MAX_SHEET_NAME_LENGTH = 31;
+
+    /**
+     * 按默认选项导出
+     *
+     * @param out  输出流，不会被关闭
+     * @param type 行的类型
+     * @param rows 行
+     * @return 导出的数据行数，不含表头
+     */
+    public static <T> long write(OutputStream out, Class<T> type, Iterator<? extends T> rows) {
+        return write(out, type, rows, ExcelWriteOptions.defaults());
+    }
+
+    /**
+     * 导出到一个工作簿，行数超过maxRowsPerSheet时换到新的sheet页，每个sheet页重复表头
+     *
+     * @param out     输出流，不会被关闭
+     * @param type    行的类型
+     * @param rows    行，逐个取出，取出后即可回收
+     * @param options 写入选项
+     * @return 导出的数据行数，不含表头
+     * @throws ServiceException 超过了maxSheetsPerWorkbook，需要用writeZip导出成多个工作簿
+     */
+    public static <T> long write(OutputStream out, Class<T> type, Iterator<? extends T> rows, ExcelWriteOptions options) {
+        return writeWorkbooks(type, rows, options, false, index -> out, index -> {
+        });
+    }
+
+    /**
+     * 导出到一个工作簿，Stream由调用方关闭
+     *
+     * @see #write(OutputStream, Class, Iterator, ExcelWriteOptions)
+     */
+    public static <T> long write(OutputStream out, Class<T> type, Stream<? extends T> rows, ExcelWriteOptions options) {
+        return write(out, type, rows.iterator(), options);
+    }
+
+    /**
+     * 导出成zip，工作簿写满maxSheetsPerWorkbook个sheet页后换到新的工作簿
+     * 每个工作簿都边写边输出到zip中的条目，写满后结束该条目
+     *
+     * @param out      输出流，不会被关闭
+     * @param fileName 工作簿的文件名，不含扩展名，zip中依次为fileName_1.xlsx、fileName_2.xlsx...
+     * @param type     行的类型
+     * @param rows     行，逐个取出，取出后即可回收
+     * @param options  写入选项
+     * @return 导出的数据行数，不含表头
+     */
+    public static <T> long writeZip(OutputStream out, String fileName, Class<T> type, Iterator<? extends T> rows, ExcelWriteOptions options) {
+        ZipOutputStream zip = new ZipOutputStream(new NonClosingOutputStream(out));
+        // 工作簿较大，取最快的压缩级别，避免压缩拖慢输出
+        zip.setLevel(Deflater.BEST_SPEED);
+        long count = writeWorkbooks(type, rows, options, true, index -> {
+            try {
+                zip.putNextEntry(new ZipEntry(fileName + "_" + index + ".xlsx"));
+                return zip;
+            } catch (IOException e) {
+                throw new ServiceException("导出文件写入失败", e);
+            }
+        }, index -> {
+            try {
+                zip.closeEntry();
+            } catch (IOException e) {
+                throw new ServiceException("导出文件写入失败", e);
+            }
+        });
+        try {
+            zip.close();
+        } catch (IOException e) {
+            throw new ServiceException("导出文件写入失败", e);
+        }
+        return count;
+    }
+
+    /**
+     * 导出成zip，Stream由调用方关闭
+     *
+     * @see #writeZip(OutputStream, String, Class, Iterator, ExcelWriteOptions)
+     */
+    public static <T> long writeZip(OutputStream out, String fileName, Class<T> type, Stream<? extends T> rows, ExcelWriteOptions options) {
+        return writeZip(out, fileName, type, rows.iterator(), options);
+    }
+
+    /**
+     * 并行导出多个sheet页到一个工作簿，每个sheet页一个线程，线程数不超过CPU核数
+     *
+     * @see #writeSheets(OutputStream, List, ExcelWriteOptions, Executor)
+     */
+    public static long writeSheets(OutputStream out, List<? extends ExcelSheetData<?>> sheets, ExcelWriteOptions options) {
+        int threads = Math.max(1, Math.min(sheets.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("excel-sheet-writer-%d").setDaemon(true).build());
+        try {
+            return writeSheets(out, sheets, options, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 并行导出多个sheet页到一个工作簿
+     * sheet页和样式在调用线程中按顺序创建，之后各sheet页的行在各自的线程中生成并序列化到各自的临时文件，
+     * 全部完成后打包成一个xlsx，所有sheet页共用一份样式表；字符串按SXSSF的默认方式内联写入，没有需要加锁的共享字符串表
+     * 一个zip同时只能写一个条目，并行写入的sheet页无法直接写入输出流，仍然经过临时文件
+     * 每个sheet页不超过xlsx的行数上限，不做换页
+     *
+     * @param out      输出流，不会被关闭
+     * @param sheets   各sheet页的内容，按顺序排列
+     * @param options  写入选项，sheet页没有单独设置时使用
+     * @param executor 写入sheet页的线程池
+     * @return 导出的数据行数，不含表头
+     */
+    public static long writeSheets(OutputStream out, List<? extends ExcelSheetData<?>> sheets, ExcelWriteOptions options, Executor executor) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(options.getRowAccessWindowSize());
+        workbook.setCompressTempFiles(options.isCompressTempFiles());
+        try {
+            CellStyleRegistry styles = new CellStyleRegistry(workbook);
+            List<SheetRowWriter> writers = new ArrayList<>(sheets.size());
+            for (ExcelSheetData<?> sheet : sheets) {
+                ExcelWriteOptions sheetOptions = sheet.getOptions() == null ? options : sheet.getOptions();
+                writers.add(createSheetWriter(styles, sheet.getSheetName(), sheet.getType(), sheetOptions));
+            }
+
+            // 任一sheet页失败后其他sheet页不再继续写
+            AtomicBoolean failed = new AtomicBoolean();
+            List<CompletableFuture<Long>> futures = new ArrayList<>(sheets.size());
+            for (int i = 0; i < sheets.size(); i++) {
+                ExcelSheetData<?> sheet = sheets.get(i);
+                SheetRowWriter writer = writers.get(i);
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return writeSheet(sheet, writer, failed);
+                    } catch (RuntimeException | Error e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                }, executor));
+            }
+            // 先等所有sheet页结束，否则失败时其他线程可能还在向即将删除的临时文件写入
+            try {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+            } catch (CompletionException ignored) {
+                // 下面按sheet页的顺序抛出第一个失败
+            }
+            long count = 0;
+            for (CompletableFuture<Long> future : futures) {
+                count += join(future);
+            }
+            writeWorkbook(workbook, out);
+            return count;
+        } finally {
+            dispose(workbook);
+        }
+    }
+
+    private static long writeSheet(ExcelSheetData<?> sheet, SheetRowWriter writer, AtomicBoolean failed) {
+        long count = 0;
+        try (Stream<?> stream = sheet.openRows()) {
+            Iterator<?> rows = stream.iterator();
+            while (rows.hasNext() && !failed.get()) {
+                writer.writeRow(rows.next());
+                count++;
+            }
+        }
+        if (!failed.get()) {
+            flushRows(writer);
+        }
+        return count;
+    }
+
+    private static long join(CompletableFuture<Long> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw ExceptionUtil.uncheckedAndWrap(e.getCause());
+        }
+    }
+
+    /**
+     * 逐个sheet页、逐个工作簿写入
+     * 写满的sheet页立即把剩余的行写出并结束它的zip条目，不再占用堆；写满的工作簿写出样式表等其余部分后结束
+     * 失败时不写出其余部分，输出的是不完整的zip，不会得到一个被截断却能正常打开的文件
+     *
+     * @param multipleWorkbooks 是否允许多个工作簿
+     * @param openWorkbook      开始一个工作簿，返回它的输出流，下标从1开始
+     * @param closeWorkbook     一个工作簿写完
+     */
+    private static long writeWorkbooks(Class<?> type, Iterator<?> rows, ExcelWriteOptions options, boolean multipleWorkbooks,
+                                       IntFunction<OutputStream> openWorkbook, IntConsumer closeWorkbook) {
+        int rowsPerSheet = options.getMaxRowsPerSheet() - (options.isWriteHeader() ? 1 : 0);
+        if (rowsPerSheet <= 0 || options.getMaxRowsPerSheet() > SheetRowWriter.MAX_ROWS) {
+            throw new ServiceException("每个sheet页的行数必须在" + (options.isWriteHeader() ? 2 : 1) + "到" + SheetRowWriter.MAX_ROWS + "之间");
+        }
+        int maxSheets = options.getMaxSheetsPerWorkbook();
+        long count = 0;
+        int sheetIndex = 0;
+        int workbookIndex = 0;
+        do {
+            workbookIndex++;
+            StreamingWorkbook workbook = new StreamingWorkbook(openWorkbook.apply(workbookIndex), options.getRowAccessWindowSize());
+            try {
+                CellStyleRegistry styles = new CellStyleRegistry(workbook);
+                int sheets = 0;
+                do {
+                    if (maxSheets > 0 && sheets == maxSheets) {
+                        if (!multipleWorkbooks) {
+                            throw new ServiceException("超过了每个工作簿的sheet页数" + maxSheets + "，请导出成zip");
+                        }
+                        break;
+                    }
+                    SheetRowWriter writer = createSheetWriter(styles, sheetName(options.getSheetName(), ++sheetIndex), type, options);
+                    sheets++;
+                    for (int i = 0; i < rowsPerSheet && rows.hasNext(); i++) {
+                        writer.writeRow(rows.next());
+                        count++;
+                    }
+                    flushRows(writer);
+                } while (rows.hasNext());
+                workbook.finish();
+            } catch (IOException e) {
+                throw new ServiceException("导出文件写入失败", e);
+            } finally {
+                dispose(workbook);
+            }
+            closeWorkbook.accept(workbookIndex);
+        } while (rows.hasNext());
+        return count;
+    }
+
+    /**
+     * 第一个sheet页使用原名称，之后依次加上_2、_3...，不超过31个字符
+     */
+    private static String sheetName(String sheetName, int index) {
+        if (index == 1) {
+            return sheetName;
+        }
+        String suffix = "_" + index;
+        return StringUtils.left(sheetName, MAX_SHEET_NAME_LENGTH - suffix.length()) + suffix;
+    }
+
+    private static void flushRows(SheetRowWriter writer) {
+        try {
+            ((SXSSFSheet) writer.getSheet()).flushRows();
+        } catch (IOException e) {
+            throw new ServiceException("导出文件写入失败", e);
+        }
+    }
+
+    /**
+     * 创建sheet页，需要时写入表头；样式从工作簿的样式登记表中取，多个sheet页共用
+     */
+    static SheetRowWriter createSheetWriter(CellStyleRegistry styles, String sheetName, Class<?> type, ExcelWriteOptions options) {
+        SheetRowWriter writer = new SheetRowWriter(styles.getWorkbook().createSheet(sheetName),
+                RowWritePlan.of(type).select(options.getColumns()), styles, options);
+        if (options.isWriteHeader()) {
+            CellStyleSpec headerStyle = options.getHeaderStyle();
+            writer.writeHeader(options.getHeaders(), headerStyle == null ? null : styles.getStyle(headerStyle));
+        }
+        return writer;
+    }
+
+    /**
+     * 打包写出，SXSSFWorkbook.write会关闭传入的流，这里屏蔽关闭，输出流仍由调用方关闭
+     */
+    static void writeWorkbook(SXSSFWorkbook workbook, OutputStream out) {
+        try {
+            workbook.write(new NonClosingOutputStream(out));
+        } catch (IOException e) {
+            throw new ServiceException("导出文件写入失败", e);
+        }
+    }
+
+    /**
+     * 删除临时文件，边写边输出的工作簿没有临时文件，只需要关闭
+     */
+    static void dispose(SXSSFWorkbook workbook) {
+        if (!(workbook instanceof StreamingWorkbook) && !workbook.dispose()) {
+            log.warn("导出的临时文件删除失败");
+        }
+        try {
+            workbook.close();
+        } catch (IOException e) {
+            log.warn("关闭工作簿失败", e);
+        }
+    }
+}
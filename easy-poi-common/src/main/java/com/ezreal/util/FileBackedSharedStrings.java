@@ -0,0 +1,156 @@
+package com.ezreal.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 基于临时文件的共享字符串
+ * 解析sharedStrings.xml时把每个字符串的UTF-8字节写入数据文件、起始位置写入偏移文件，再以只读方式内存映射，
+ * 字符串内容由操作系统页缓存管理，不占用堆内存；最近使用的字符串解码后保存在一个很小的LRU缓存中
+ * 与ReadOnlySharedStringsTable(pkg, false)一致，富文本按顺序拼接，不包含拼音(rPh)
+ *
+ * @author ezreal
+ */
+@Slf4j
+class FileBackedSharedStrings implements SharedStringSource {
+
+    /**
+     * 单个映射区最大1G，超过时分段映射
+     */
+    private static final int SEGMENT_SIZE = 1 << 30;
+
+    private final int count;
+
+    /**
+     * 第i个字符串的起始位置，共count + 1个，最后一个为数据总长度
+     */
+    private final ByteBuffer offsets;
+
+    private final MappedByteBuffer[] segments;
+
+    private final Map<Integer, String> cache;
+
+    FileBackedSharedStrings(XMLStreamReader reader, int cacheSize) throws IOException, XMLStreamException {
+        File dataFile = File.createTempFile("easy-poi-sst", ".data");
+        File offsetFile = File.createTempFile("easy-poi-sst", ".offset");
+        try {
+            this.count = write(reader, dataFile, offsetFile);
+            this.offsets = map(offsetFile, 0, offsetFile.length());
+            long dataLength = dataFile.length();
+            this.segments = new MappedByteBuffer[(int) ((dataLength + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; i++) {
+                long position = (long) i * SEGMENT_SIZE;
+                segments[i] = map(dataFile, position, Math.min(SEGMENT_SIZE, dataLength - position));
+            }
+        } finally {
+            // 映射建立后文件即可删除，映射区在释放前仍然有效；无法删除时(如Windows)退出时再删除
+            delete(dataFile);
+            delete(offsetFile);
+        }
+        this.cache = new LinkedHashMap<Integer, String>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public String getEntryAt(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("共享字符串下标越界：" + index);
+        }
+        synchronized (cache) {
+            String value = cache.get(index);
+            if (value != null) {
+                return value;
+            }
+        }
+        String value = decode(index);
+        synchronized (cache) {
+            cache.put(index, value);
+        }
+        return value;
+    }
+
+    int size() {
+        return count;
+    }
+
+    private String decode(int index) {
+        long start = offsets.getLong(index * 8);
+        int length = (int) (offsets.getLong(index * 8 + 8) - start);
+        byte[] bytes = new byte[length];
+        int read = 0;
+        while (read < length) {
+            long position = start + read;
+            // 每次读取复制一份视图，多个线程读取时互不影响
+            ByteBuffer segment = segments[(int) (position / SEGMENT_SIZE)].duplicate();
+            segment.position((int) (position % SEGMENT_SIZE));
+            int size = Math.min(length - read, segment.remaining());
+            segment.get(bytes, read, size);
+            read += size;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 解析sst，返回字符串个数
+     */
+    private static int write(XMLStreamReader reader, File dataFile, File offsetFile) throws IOException, XMLStreamException {
+        SharedStringItemReader items = new SharedStringItemReader(reader);
+        int count = 0;
+        long position = 0;
+        try (BufferedOutputStream data = new BufferedOutputStream(new FileOutputStream(dataFile), 64 * 1024);
+             DataOutputStream offset = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(offsetFile), 64 * 1024))) {
+            offset.writeLong(0);
+            for (String item = items.next(); item != null; item = items.next()) {
+                byte[] bytes = item.getBytes(StandardCharsets.UTF_8);
+                data.write(bytes);
+                position += bytes.length;
+                offset.writeLong(position);
+                count++;
+            }
+        } finally {
+            items.close();
+        }
+        return count;
+    }
+
+    private static MappedByteBuffer map(File file, long position, long size) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        }
+    }
+
+    private static void delete(File file) {
+        if (!file.delete()) {
+            log.debug("临时文件{}暂时无法删除，将在退出时删除", file);
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * 映射区由GC回收，这里只释放缓存
+     */
+    @Override
+    public void close() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.ezreal.util;
+
+/**
+ * 公式单元格的读取方式
+ *
+ * @author ezreal
+ */
+public enum FormulaMode {
+
+    /**
+     * 返回公式本身，日期格式的公式返回日期，与原有的读取结果一致
+     */
+    FORMULA,
+
+    /**
+     * 返回Excel保存在单元格中的计算结果，读取速度与普通单元格相同；没有保存计算结果的单元格按空值处理
+     */
+    CACHED_RESULT,
+
+    /**
+     * 返回保存的计算结果，没有保存计算结果的单元格用FormulaEvaluator计算，一次读取共用一个求值器，已计算的单元格不会重复计算
+     * 只适用于DOM读取，流式读取时与CACHED_RESULT相同
+     */
+    CACHED_RESULT_OR_EVALUATE
+}
@@ -0,0 +1,63 @@
+package com.ezreal.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按需解析的共享字符串
+ * 只解析到用到的最大下标为止，只读取前几行时不必解析整个sharedStrings.xml
+ *
+ * @author ezreal
+ */
+@Slf4j
+class LazySharedStrings implements SharedStringSource {
+
+    private final InputStream inputStream;
+
+    private final SharedStringItemReader items;
+
+    private final List<String> strings = new ArrayList<>();
+
+    private boolean finished;
+
+    LazySharedStrings(InputStream inputStream, XMLStreamReader reader) {
+        this.inputStream = inputStream;
+        this.items = new SharedStringItemReader(reader);
+    }
+
+    @Override
+    public synchronized String getEntryAt(int index) {
+        try {
+            while (!finished && strings.size() <= index) {
+                String item = items.next();
+                if (item == null) {
+                    finished = true;
+                } else {
+                    strings.add(item);
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new ServiceException("共享字符串解析失败", e);
+        }
+        if (index < 0 || index >= strings.size()) {
+            throw new IndexOutOfBoundsException("共享字符串下标越界：" + index);
+        }
+        return strings.get(index);
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            items.close();
+            inputStream.close();
+        } catch (XMLStreamException | IOException e) {
+            log.warn("共享字符串关闭失败", e);
+        }
+    }
+}
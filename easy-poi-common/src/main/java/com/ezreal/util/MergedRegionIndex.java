@@ -0,0 +1,141 @@
+package com.ezreal.util;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 合并单元格索引
+ * 按行分桶保存合并区域，桶内按起始列排序，查询时二分查找，复杂度O(log n)
+ * 每个合并区域左上角的值只读取一次
+ *
+ * @author ezreal
+ */
+class MergedRegionIndex {
+
+    private final Map<Integer, Region[]> rows;
+
+    private MergedRegionIndex(Map<Integer, Region[]> rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * 为sheet页建立索引
+     *
+     * @param sheet       sheet页
+     * @param valueLoader 读取合并区域左上角的值
+     */
+    static MergedRegionIndex of(Sheet sheet, Function<CellRangeAddress, Object> valueLoader) {
+        return of(sheet.getMergedRegions(), valueLoader);
+    }
+
+    /**
+     * 根据合并区域建立索引
+     *
+     * @param ranges      合并区域
+     * @param valueLoader 读取合并区域左上角的值
+     */
+    static MergedRegionIndex of(List<CellRangeAddress> ranges, Function<CellRangeAddress, Object> valueLoader) {
+        if (ranges.isEmpty()) {
+            return new MergedRegionIndex(Collections.emptyMap());
+        }
+        Map<Integer, List<Region>> buckets = new HashMap<>();
+        for (CellRangeAddress range : ranges) {
+            Region region = new Region(range, valueLoader);
+            for (int row = range.getFirstRow(); row <= range.getLastRow(); row++) {
+                buckets.computeIfAbsent(row, key -> new ArrayList<>(2)).add(region);
+            }
+        }
+        Map<Integer, Region[]> rows = new HashMap<>(buckets.size() * 4 / 3 + 1);
+        Comparator<Region> byFirstColumn = Comparator.comparingInt(region -> region.range.getFirstColumn());
+        for (Map.Entry<Integer, List<Region>> entry : buckets.entrySet()) {
+            List<Region> regions = entry.getValue();
+            regions.sort(byFirstColumn);
+            rows.put(entry.getKey(), regions.toArray(new Region[0]));
+        }
+        return new MergedRegionIndex(rows);
+    }
+
+    /**
+     * 查找单元格所在的合并区域
+     *
+     * @param row    行下标
+     * @param column 列下标
+     * @return 合并区域，不是合并单元格时返回null
+     */
+    Region find(int row, int column) {
+        Region[] regions = rows.get(row);
+        if (regions == null) {
+            return null;
+        }
+        // 找到最后一个起始列不大于column的区域
+        int low = 0;
+        int high = regions.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (regions[mid].range.getFirstColumn() <= column) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (high < 0) {
+            return null;
+        }
+        Region region = regions[high];
+        return column <= region.range.getLastColumn() ? region : null;
+    }
+
+    /**
+     * 该行被合并区域覆盖到的列数，与Row.getLastCellNum含义相同
+     *
+     * @param row 行下标
+     * @return 列数，没有合并区域时返回0
+     */
+    int getLastCellNum(int row) {
+        Region[] regions = rows.get(row);
+        if (regions == null) {
+            return 0;
+        }
+        // 同一行的合并区域互不重叠，起始列最大的区域结束列也最大
+        return regions[regions.length - 1].range.getLastColumn() + 1;
+    }
+
+    /**
+     * 合并区域，左上角的值在第一次使用时读取
+     */
+    static final class Region {
+
+        private final CellRangeAddress range;
+
+        private final Function<CellRangeAddress, Object> valueLoader;
+
+        private Object value;
+
+        private boolean loaded;
+
+        private Region(CellRangeAddress range, Function<CellRangeAddress, Object> valueLoader) {
+            this.range = range;
+            this.valueLoader = valueLoader;
+        }
+
+        CellRangeAddress getRange() {
+            return range;
+        }
+
+        Object getValue() {
+            if (!loaded) {
+                value = valueLoader.apply(range);
+                loaded = true;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.ezreal.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 屏蔽关闭的输出流，关闭时只flush，被包装的流仍由调用方关闭
+ *
+ * @author ezreal
+ */
+final class NonClosingOutputStream extends FilterOutputStream {
+
+    NonClosingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+}
@@ -0,0 +1,157 @@
+package com.ezreal.util;
+
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按列投影过滤sheet xml
+ * 位于sax解析器和XSSFSheetXMLHandler之间，未选中的c节点整个丢弃，XSSFSheetXMLHandler看不到这些单元格，
+ * 也就不会去查共享字符串或格式化数值
+ * 按表头名称指定的投影在第一行结束时确定列下标，第一行只把选中的单元格交给中间处理
+ *
+ * @author ezreal
+ */
+class ProjectingSheetFilter extends XMLFilterImpl {
+
+    private ColumnProjection projection;
+
+    /**
+     * 当前位于被丢弃的c节点内的深度
+     */
+    private int skipDepth;
+
+    private int column = -1;
+
+    ProjectingSheetFilter(XMLReader parent, ColumnProjection projection) {
+        super(parent);
+        this.projection = projection;
+    }
+
+    /**
+     * 包装中间处理，按表头名称指定时由包装后的处理确定列下标
+     */
+    XSSFSheetXMLHandler.SheetContentsHandler wrap(XSSFSheetXMLHandler.SheetContentsHandler handler) {
+        return projection.isResolved() ? handler : new HeaderResolvingHandler(handler);
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+        if (skipDepth > 0) {
+            skipDepth++;
+            return;
+        }
+        if ("row".equals(localName)) {
+            column = -1;
+        } else if ("c".equals(localName)) {
+            String ref = atts.getValue("r");
+            column = ref == null ? column + 1 : ExcelSheetReader.getColumnIndex(ref);
+            if (projection.isResolved() && projection.slotOf(column) < 0) {
+                skipDepth = 1;
+                return;
+            }
+        }
+        super.startElement(uri, localName, qName, atts);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        if (skipDepth > 0) {
+            skipDepth--;
+            return;
+        }
+        super.endElement(uri, localName, qName);
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        if (skipDepth == 0) {
+            super.characters(ch, start, length);
+        }
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+        if (skipDepth == 0) {
+            super.ignorableWhitespace(ch, start, length);
+        }
+    }
+
+    /**
+     * 缓存第一行的单元格，行结束时按表头确定列下标，再把选中的单元格交给中间处理
+     */
+    private final class HeaderResolvingHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final XSSFSheetXMLHandler.SheetContentsHandler delegate;
+
+        private final List<HeaderCell> headerCells = new ArrayList<>();
+
+        private HeaderResolvingHandler(XSSFSheetXMLHandler.SheetContentsHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            delegate.startRow(rowNum);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!projection.isResolved()) {
+                List<Object> headerRow = new ArrayList<>();
+                for (HeaderCell cell : headerCells) {
+                    while (headerRow.size() <= cell.column) {
+                        headerRow.add(null);
+                    }
+                    headerRow.set(cell.column, cell.value);
+                }
+                projection = projection.resolve(headerRow);
+                for (HeaderCell cell : headerCells) {
+                    if (projection.slotOf(cell.column) >= 0) {
+                        delegate.cell(cell.reference, cell.value, cell.comment);
+                    }
+                }
+                headerCells.clear();
+            }
+            delegate.endRow(rowNum);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (projection.isResolved()) {
+                delegate.cell(cellReference, formattedValue, comment);
+            } else {
+                headerCells.add(new HeaderCell(cellReference, formattedValue, comment));
+            }
+        }
+
+        @Override
+        public void headerFooter(String text, boolean isHeader, String tagName) {
+            delegate.headerFooter(text, isHeader, tagName);
+        }
+    }
+
+    private static final class HeaderCell {
+
+        private final String reference;
+
+        private final int column;
+
+        private final String value;
+
+        private final XSSFComment comment;
+
+        private HeaderCell(String reference, String value, XSSFComment comment) {
+            this.reference = reference;
+            this.column = ExcelSheetReader.getColumnIndex(reference);
+            this.value = value;
+            this.comment = comment;
+        }
+    }
+}
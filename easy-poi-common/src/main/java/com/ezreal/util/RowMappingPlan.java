@@ -0,0 +1,194 @@
+package com.ezreal.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * 行到对象的映射计划
+ * 每个类只解析一次构造函数、字段setter以及字段对应的列，按ClassValue缓存，逐行转换时不再做反射查找
+ * 字段按声明顺序对应列，与ExcelReadUtils原有的映射规则一致
+ *
+ * @author ezreal
+ */
+@Slf4j
+final class RowMappingPlan<T> {
+
+    private static final ClassValue<RowMappingPlan<?>> PLANS = new ClassValue<RowMappingPlan<?>>() {
+        @Override
+        protected RowMappingPlan<?> computeValue(Class<?> type) {
+            return new RowMappingPlan<>(type);
+        }
+    };
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<T> type;
+
+    private final MethodHandle constructor;
+
+    /**
+     * 构造函数解析失败的原因，实例化时再抛出
+     */
+    private final Exception constructorError;
+
+    private final FieldMapping[] fields;
+
+    private RowMappingPlan(Class<T> type) {
+        this.type = type;
+        MethodHandle handle = null;
+        Exception error = null;
+        try {
+            Constructor<T> ctor = type.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            handle = MethodHandles.lookup().unreflectConstructor(ctor).asType(CONSTRUCTOR_TYPE);
+        } catch (Exception e) {
+            error = e;
+        }
+        this.constructor = handle;
+        this.constructorError = error;
+
+        Field[] declaredFields = type.getDeclaredFields();
+        this.fields = new FieldMapping[declaredFields.length];
+        for (int i = 0; i < declaredFields.length; i++) {
+            fields[i] = new FieldMapping(i, declaredFields[i]);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> RowMappingPlan<T> of(Class<T> type) {
+        return (RowMappingPlan<T>) PLANS.get(type);
+    }
+
+    /**
+     * 创建实例
+     */
+    @SuppressWarnings("unchecked")
+    T newInstance() {
+        if (constructor == null) {
+            log.error(type.getSimpleName() + "实例化失败！", constructorError);
+            throw new ServiceException(type.getSimpleName() + "实例化失败！" + constructorError.getMessage());
+        }
+        try {
+            return (T) constructor.invokeExact();
+        } catch (Throwable e) {
+            log.error(type.getSimpleName() + "实例化失败！", e);
+            throw new ServiceException(type.getSimpleName() + "实例化失败！" + e.getMessage());
+        }
+    }
+
+    /**
+     * 字段映射，下标即列下标
+     */
+    FieldMapping[] getFields() {
+        return fields;
+    }
+
+    /**
+     * 单个字段的映射
+     */
+    static final class FieldMapping {
+
+        private final int column;
+
+        private final Class<?> type;
+
+        /**
+         * 列前缀，如A、B、AA，用于按单元格引用取值的行
+         */
+        private final String cellPrefix;
+
+        /**
+         * 静态字段不参与赋值，为null
+         */
+        private final MethodHandle setter;
+
+        /**
+         * 最近一次使用的转换器，同一列的单元格类型基本一致，避免每次查找注册表
+         * 引用的对象只有final字段，多线程下无需同步
+         */
+        private ConverterCache converterCache;
+
+        private FieldMapping(int column, Field field) {
+            this.column = column;
+            this.type = field.getType();
+            this.cellPrefix = ExcelReadUtils.getExcelCellPrefixByIndex(column);
+            this.setter = Modifier.isStatic(field.getModifiers()) ? null : createSetter(field);
+        }
+
+        private static MethodHandle createSetter(Field field) {
+            ClassUtil.makeAccessible(field);
+            try {
+                return MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                // final字段无法生成setter句柄，退回Field.set
+                try {
+                    MethodHandle set = MethodHandles.lookup().findVirtual(Field.class, "set", SETTER_TYPE);
+                    return set.bindTo(field);
+                } catch (ReflectiveOperationException ex) {
+                    throw ReflectionUtil.convertReflectionExceptionToUnchecked(ex);
+                }
+            }
+        }
+
+        int getColumn() {
+            return column;
+        }
+
+        Class<?> getType() {
+            return type;
+        }
+
+        String getCellPrefix() {
+            return cellPrefix;
+        }
+
+        /**
+         * 将单元格值转换成字段类型
+         */
+        Object convert(Object value) {
+            Class<?> sourceType = value.getClass();
+            ConverterCache cache = converterCache;
+            if (cache == null || cache.sourceType != sourceType) {
+                cache = new ConverterCache(sourceType, CellValueConverters.getConverter(sourceType, type));
+                converterCache = cache;
+            }
+            return cache.converter.convert(value);
+        }
+
+        /**
+         * 给字段赋值
+         */
+        void set(Object target, Object value) {
+            if (setter == null) {
+                return;
+            }
+            try {
+                setter.invokeExact(target, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw ExceptionUtil.uncheckedAndWrap(e);
+            }
+        }
+    }
+
+    private static final class ConverterCache {
+
+        private final Class<?> sourceType;
+
+        private final CellValueConverter converter;
+
+        private ConverterCache(Class<?> sourceType, CellValueConverter converter) {
+            this.sourceType = sourceType;
+            this.converter = converter;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.ezreal.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 对象到行的写入计划
+ * 每个类只解析一次字段的取值方法和单元格类型，按ClassValue缓存，逐行写入时不再做反射查找
+ * 列的顺序与RowMappingPlan一致(字段声明顺序，跳过静态字段)，导出的文件可以按原规则读回
+ *
+ * @author ezreal
+ */
+final class RowWritePlan<T> {
+
+    private static final ClassValue<RowWritePlan<?>> PLANS = new ClassValue<RowWritePlan<?>>() {
+        @Override
+        protected RowWritePlan<?> computeValue(Class<?> type) {
+            return new RowWritePlan<>(type);
+        }
+    };
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final Class<T> type;
+
+    /**
+     * 属性名 -> 列，按字段声明顺序
+     */
+    private final Map<String, ColumnWriter> columns;
+
+    private RowWritePlan(Class<T> type) {
+        this.type = type;
+        Map<String, ColumnWriter> map = new LinkedHashMap<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                map.put(field.getName(), new ColumnWriter(field.getName(), field.getType(), createGetter(type, field)));
+            }
+        }
+        this.columns = Collections.unmodifiableMap(map);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> RowWritePlan<T> of(Class<T> type) {
+        return (RowWritePlan<T>) PLANS.get(type);
+    }
+
+    /**
+     * 按属性名选出要导出的列，为null时返回所有列
+     */
+    List<ColumnWriter> select(List<String> propertyNames) {
+        if (propertyNames == null) {
+            return new ArrayList<>(columns.values());
+        }
+        List<ColumnWriter> selected = new ArrayList<>(propertyNames.size());
+        for (String name : propertyNames) {
+            ColumnWriter column = columns.get(name);
+            if (column == null) {
+                throw new ServiceException(type.getSimpleName() + "中不存在属性" + name);
+            }
+            selected.add(column);
+        }
+        return selected;
+    }
+
+    /**
+     * 优先使用getter方法，没有getter时直接读字段
+     */
+    private static Function<Object, Object> createGetter(Class<?> type, Field field) {
+        Method method = ClassUtil.getGetterMethod(type, field.getName());
+        if (method != null && method.getParameterCount() == 0 && !Modifier.isStatic(method.getModifiers())) {
+            return FastMethodInvoker.getter(method);
+        }
+        ClassUtil.makeAccessible(field);
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw ReflectionUtil.convertReflectionExceptionToUnchecked(e);
+        }
+        return target -> {
+            try {
+                return handle.invokeExact(target);
+            } catch (Throwable e) {
+                throw ExceptionUtil.uncheckedAndWrap(e);
+            }
+        };
+    }
+
+    /**
+     * 单元格类型，按字段的声明类型确定，OTHER按运行时的值判断
+     */
+    enum CellKind {
+        STRING, NUMBER, BOOLEAN, DATE, LOCAL_DATE, LOCAL_DATE_TIME, OTHER;
+
+        static CellKind of(Class<?> type) {
+            if (type == String.class) {
+                return STRING;
+            }
+            if (type.isPrimitive() && type != boolean.class && type != char.class || Number.class.isAssignableFrom(type)) {
+                return NUMBER;
+            }
+            if (type == boolean.class || type == Boolean.class) {
+                return BOOLEAN;
+            }
+            if (Date.class.isAssignableFrom(type)) {
+                return DATE;
+            }
+            if (type == LocalDate.class) {
+                return LOCAL_DATE;
+            }
+            if (type == LocalDateTime.class) {
+                return LOCAL_DATE_TIME;
+            }
+            return OTHER;
+        }
+    }
+
+    /**
+     * 单列的取值方法，无状态，多线程共用
+     */
+    static final class ColumnWriter {
+
+        private final String name;
+
+        private final CellKind kind;
+
+        private final Function<Object, Object> getter;
+
+        private ColumnWriter(String name, Class<?> type, Function<Object, Object> getter) {
+            this.name = name;
+            this.kind = CellKind.of(type);
+            this.getter = getter;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        CellKind getKind() {
+            return kind;
+        }
+
+        Object get(Object target) {
+            return getter.apply(target);
+        }
+    }
+}
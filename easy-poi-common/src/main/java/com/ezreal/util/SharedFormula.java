@@ -0,0 +1,185 @@
+package com.ezreal.util;
+
+/**
+ * 共享公式
+ * 填充公式时excel只在主单元格中保存公式文本(f t="shared" ref="B1:B10" si="0")，其余单元格只有si，
+ * 公式需要按与主单元格的行列偏移平移相对引用后得到，结果与XSSFCell.getCellFormula一致；
+ * 只有整行整列引用保持A:A、1:1的写法，poi会展开为A$1:A$1048576
+ *
+ * @author ezreal
+ */
+class SharedFormula {
+
+    private static final int MAX_ROW = 1048576;
+
+    private static final int MAX_COLUMN = 16384;
+
+    private final String formula;
+
+    private final int firstRow;
+
+    private final int firstColumn;
+
+    SharedFormula(String formula, int firstRow, int firstColumn) {
+        this.formula = formula;
+        this.firstRow = firstRow;
+        this.firstColumn = firstColumn;
+    }
+
+    /**
+     * 获取指定单元格上的公式
+     *
+     * @param row    行下标，从0开始
+     * @param column 列下标，从0开始
+     */
+    String formulaAt(int row, int column) {
+        if (row == firstRow && column == firstColumn) {
+            return formula;
+        }
+        return shift(formula, row - firstRow, column - firstColumn);
+    }
+
+    /**
+     * 平移公式中的相对引用，带$的绝对行列保持不变，字符串、函数名及sheet名不做处理；平移后越界的引用替换为#REF!
+     */
+    static String shift(String formula, int rowOffset, int columnOffset) {
+        StringBuilder result = new StringBuilder(formula.length() + 8);
+        int length = formula.length();
+        int i = 0;
+        while (i < length) {
+            char c = formula.charAt(i);
+            if (c == '"' || c == '\'') {
+                // 字符串常量或带引号的sheet名，成对的引号表示转义
+                int end = i + 1;
+                while (end < length) {
+                    if (formula.charAt(end) == c) {
+                        if (end + 1 < length && formula.charAt(end + 1) == c) {
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    end++;
+                }
+                end = Math.min(end + 1, length);
+                result.append(formula, i, end);
+                i = end;
+            } else if (c == '[') {
+                // 外部工作簿下标或结构化引用
+                int end = formula.indexOf(']', i);
+                end = end < 0 ? length : end + 1;
+                result.append(formula, i, end);
+                i = end;
+            } else if (isTokenChar(c)) {
+                int end = i;
+                while (end < length && isTokenChar(formula.charAt(end))) {
+                    end++;
+                }
+                String token = formula.substring(i, end);
+                char next = end < length ? formula.charAt(end) : 0;
+                if (next == '(' || next == '!' || Character.isDigit(c) && next != ':' && !isRowRangeEnd(formula, i)) {
+                    // 函数名、sheet名或数字常量
+                    result.append(token);
+                } else {
+                    result.append(shiftToken(token, formula, i, end, rowOffset, columnOffset));
+                }
+                i = end;
+            } else {
+                result.append(c);
+                i++;
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * 平移单个引用：单元格A1、整列A:A的一端或整行1:1的一端，其余原样返回
+     */
+    private static String shiftToken(String token, String formula, int start, int end, int rowOffset, int columnOffset) {
+        int i = 0;
+        boolean absoluteColumn = false;
+        if (token.charAt(i) == '$') {
+            absoluteColumn = true;
+            i++;
+        }
+        int letterStart = i;
+        while (i < token.length() && isLetter(token.charAt(i))) {
+            i++;
+        }
+        int letters = i - letterStart;
+        boolean absoluteRow = false;
+        if (i < token.length() && token.charAt(i) == '$') {
+            absoluteRow = true;
+            i++;
+        }
+        int digitStart = i;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
+        }
+        int digits = i - digitStart;
+        if (i != token.length() || letters > 3) {
+            return token;
+        }
+        boolean inRange = end < formula.length() && formula.charAt(end) == ':'
+                || start > 0 && formula.charAt(start - 1) == ':';
+        if (letters > 0 && digits > 0) {
+            int column = absoluteColumn ? -1 : columnIndex(token, letterStart, letters) + columnOffset;
+            int row = absoluteRow ? -1 : Integer.parseInt(token.substring(digitStart)) - 1 + rowOffset;
+            if (!absoluteColumn && (column < 0 || column >= MAX_COLUMN) || !absoluteRow && (row < 0 || row >= MAX_ROW)) {
+                return "#REF!";
+            }
+            StringBuilder ref = new StringBuilder();
+            ref.append(absoluteColumn ? "$" + token.substring(letterStart, letterStart + letters) : columnName(column));
+            ref.append(absoluteRow ? "$" + token.substring(digitStart) : String.valueOf(row + 1));
+            return ref.toString();
+        }
+        if (letters > 0 && digits == 0 && !absoluteRow && inRange) {
+            // 整列引用，如A:A
+            if (absoluteColumn) {
+                return token;
+            }
+            int column = columnIndex(token, letterStart, letters) + columnOffset;
+            return column < 0 || column >= MAX_COLUMN ? "#REF!" : columnName(column);
+        }
+        if (letters == 0 && digits > 0 && inRange) {
+            // 整行引用，如1:1，此时开头的$表示绝对行
+            if (absoluteColumn) {
+                return token;
+            }
+            int row = Integer.parseInt(token) - 1 + rowOffset;
+            return row < 0 || row >= MAX_ROW ? "#REF!" : String.valueOf(row + 1);
+        }
+        return token;
+    }
+
+    private static boolean isRowRangeEnd(String formula, int start) {
+        return start > 0 && formula.charAt(start - 1) == ':';
+    }
+
+    private static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '$' || c == '_' || c == '.' || c == '\\';
+    }
+
+    private static boolean isLetter(char c) {
+        return c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z';
+    }
+
+    private static int columnIndex(String token, int start, int letters) {
+        int column = 0;
+        for (int i = start; i < start + letters; i++) {
+            column = column * 26 + (Character.toUpperCase(token.charAt(i)) - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private static String columnName(int column) {
+        StringBuilder name = new StringBuilder();
+        int value = column + 1;
+        while (value > 0) {
+            int remainder = (value - 1) % 26;
+            name.insert(0, (char) ('A' + remainder));
+            value = (value - 1) / 26;
+        }
+        return name.toString();
+    }
+}
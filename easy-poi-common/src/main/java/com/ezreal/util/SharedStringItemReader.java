@@ -0,0 +1,55 @@
+package com.ezreal.util;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * 逐个读取sharedStrings.xml中的si节点
+ * 与ReadOnlySharedStringsTable(pkg, false)一致，富文本按顺序拼接，不包含拼音(rPh)
+ *
+ * @author ezreal
+ */
+final class SharedStringItemReader {
+
+    private final XMLStreamReader reader;
+
+    SharedStringItemReader(XMLStreamReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * 读取下一个字符串
+     *
+     * @return 字符串，没有更多时返回null
+     */
+    String next() throws XMLStreamException {
+        StringBuilder text = null;
+        int phoneticDepth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("si".equals(name)) {
+                    text = new StringBuilder();
+                } else if ("rPh".equals(name)) {
+                    phoneticDepth++;
+                } else if ("t".equals(name) && text != null && phoneticDepth == 0) {
+                    text.append(reader.getElementText());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("rPh".equals(name)) {
+                    phoneticDepth--;
+                } else if ("si".equals(name) && text != null) {
+                    return text.toString();
+                }
+            }
+        }
+        return null;
+    }
+
+    void close() throws XMLStreamException {
+        reader.close();
+    }
+}
@@ -0,0 +1,33 @@
+package com.ezreal.util;
+
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+
+import java.io.Closeable;
+
+/**
+ * 共享字符串来源
+ * 流式读取时按下标查找sharedStrings.xml中的字符串，实现需要支持多线程读取
+ *
+ * @author ezreal
+ */
+interface SharedStringSource extends Closeable {
+
+    /**
+     * 按下标获取字符串
+     */
+    String getEntryAt(int index);
+
+    /**
+     * 不占用外部资源时无需关闭
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * 全部加载到内存中的共享字符串
+     */
+    static SharedStringSource of(ReadOnlySharedStringsTable table) {
+        return table::getEntryAt;
+    }
+}
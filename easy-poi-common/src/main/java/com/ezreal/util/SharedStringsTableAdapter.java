@@ -0,0 +1,89 @@
+package com.ezreal.util;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * 以ReadOnlySharedStringsTable的形式提供SharedStringSource，供XSSFSheetXMLHandler(SAX读取)使用
+ * 不在构造时解析sharedStrings.xml，按下标取字符串时交给SharedStringSource，
+ * 因此SAX读取同样支持共享字符串写入临时文件和按需解析
+ *
+ * @author ezreal
+ */
+final class SharedStringsTableAdapter extends ReadOnlySharedStringsTable implements Closeable {
+
+    /**
+     * 父类构造时会调用readFrom，此时还未赋值
+     */
+    private SharedStringSource source;
+
+    private SharedStringsTableAdapter(OPCPackage pkg, SharedStringSource source) throws IOException, SAXException {
+        super(pkg, false);
+        this.source = source;
+    }
+
+    /**
+     * 按读取选项打开共享字符串
+     * 开启按需解析或超过写入临时文件的大小时使用SharedStringSource，否则与原来一样全部加载(包含拼音)
+     * 返回的对象需要关闭
+     */
+    static ReadOnlySharedStringsTable open(OPCPackage pkg, ExcelReadOptions options) throws IOException, SAXException {
+        SharedStringSource source;
+        try {
+            source = ExcelPackageReader.openStreamedSharedStrings(pkg, options);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+        if (source == null) {
+            return new ReadOnlySharedStringsTable(pkg);
+        }
+        try {
+            return new SharedStringsTableAdapter(pkg, source);
+        } catch (IOException | SAXException | RuntimeException e) {
+            source.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 关闭open返回的共享字符串，全部加载的不需要关闭
+     */
+    static void closeQuietly(ReadOnlySharedStringsTable strings) {
+        if (strings instanceof SharedStringsTableAdapter) {
+            ((SharedStringsTableAdapter) strings).close();
+        }
+    }
+
+    /**
+     * 不解析，内容由SharedStringSource提供
+     */
+    @Override
+    public void readFrom(InputStream is) throws IOException {
+        is.close();
+    }
+
+    @Override
+    public String getEntryAt(int idx) {
+        return source.getEntryAt(idx);
+    }
+
+    /**
+     * 字符串不在内存中，不支持一次取出全部
+     */
+    @Override
+    public List<String> getItems() {
+        throw new UnsupportedOperationException("共享字符串未全部加载到内存中");
+    }
+
+    @Override
+    public void close() {
+        source.close();
+    }
+}
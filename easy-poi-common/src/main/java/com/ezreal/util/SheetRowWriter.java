@@ -0,0 +1,148 @@
+package com.ezreal.util;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按写入计划逐行写入一个sheet页
+ * 列的单元格类型在计划中已确定，写入时按类型直接设值，不再逐个判断值的类型
+ * 每列的样式在创建时从CellStyleRegistry中取出，写入时不再查找或创建样式
+ *
+ * @author ezreal
+ */
+final class SheetRowWriter {
+
+    static final int MAX_ROWS = ExcelWriteOptions.MAX_ROWS_PER_SHEET;
+
+    private final Sheet sheet;
+
+    private final RowWritePlan.ColumnWriter[] columns;
+
+    /**
+     * 每列的样式，没有格式的列为null
+     */
+    private final CellStyle[] columnStyles;
+
+    private final CellStyle dateTimeStyle;
+
+    private final CellStyle dateStyle;
+
+    private int nextRow;
+
+    SheetRowWriter(Sheet sheet, List<RowWritePlan.ColumnWriter> columns, CellStyleRegistry styles, ExcelWriteOptions options) {
+        this.sheet = sheet;
+        this.columns = columns.toArray(new RowWritePlan.ColumnWriter[0]);
+        this.dateTimeStyle = styles.getStyle(options.getDateTimeFormat());
+        this.dateStyle = styles.getStyle(options.getDateFormat());
+        this.columnStyles = new CellStyle[this.columns.length];
+        Map<String, String> formats = options.getColumnFormats();
+        for (int i = 0; i < this.columns.length; i++) {
+            String format = formats == null ? null : formats.get(this.columns[i].getName());
+            columnStyles[i] = format != null ? styles.getStyle(format) : defaultStyle(this.columns[i].getKind());
+        }
+    }
+
+    /**
+     * 写表头，为null时使用属性名
+     */
+    void writeHeader(List<String> headers, CellStyle headerStyle) {
+        if (headers != null && headers.size() != columns.length) {
+            throw new ServiceException("表头有" + headers.size() + "列，导出的列有" + columns.length + "列");
+        }
+        Row row = createRow();
+        for (int i = 0; i < columns.length; i++) {
+            Cell cell = row.createCell(i);
+            cell.setCellValue(headers == null ? columns[i].getName() : headers.get(i));
+            if (headerStyle != null) {
+                cell.setCellStyle(headerStyle);
+            }
+        }
+    }
+
+    void writeRow(Object bean) {
+        Row row = createRow();
+        for (int i = 0; i < columns.length; i++) {
+            Object value = columns[i].get(bean);
+            if (value != null) {
+                Cell cell = row.createCell(i);
+                writeCell(cell, columns[i].getKind(), value);
+                if (columnStyles[i] != null) {
+                    cell.setCellStyle(columnStyles[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 已写入的行数，包含表头
+     */
+    int getRowCount() {
+        return nextRow;
+    }
+
+    Sheet getSheet() {
+        return sheet;
+    }
+
+    private Row createRow() {
+        if (nextRow >= MAX_ROWS) {
+            throw new ServiceException(sheet.getSheetName() + "超过了sheet页的最大行数" + MAX_ROWS);
+        }
+        return sheet.createRow(nextRow++);
+    }
+
+    private void writeCell(Cell cell, RowWritePlan.CellKind kind, Object value) {
+        switch (kind) {
+            case STRING:
+                cell.setCellValue((String) value);
+                break;
+            case NUMBER:
+                cell.setCellValue(((Number) value).doubleValue());
+                break;
+            case BOOLEAN:
+                cell.setCellValue((Boolean) value);
+                break;
+            case DATE:
+                cell.setCellValue(ExcelDates.toExcelDate((Date) value, false));
+                break;
+            case LOCAL_DATE:
+                cell.setCellValue(ExcelDates.toExcelDate((LocalDate) value, false));
+                break;
+            case LOCAL_DATE_TIME:
+                cell.setCellValue(ExcelDates.toExcelDate((LocalDateTime) value, false));
+                break;
+            default:
+                RowWritePlan.CellKind actual = RowWritePlan.CellKind.of(value.getClass());
+                if (actual == RowWritePlan.CellKind.OTHER) {
+                    cell.setCellValue(value.toString());
+                } else {
+                    writeCell(cell, actual, value);
+                    // 声明类型不确定的列按值的类型补上日期格式
+                    CellStyle style = defaultStyle(actual);
+                    if (style != null) {
+                        cell.setCellStyle(style);
+                    }
+                }
+        }
+    }
+
+    private CellStyle defaultStyle(RowWritePlan.CellKind kind) {
+        switch (kind) {
+            case DATE:
+            case LOCAL_DATE_TIME:
+                return dateTimeStyle;
+            case LOCAL_DATE:
+                return dateStyle;
+            default:
+                return null;
+        }
+    }
+}
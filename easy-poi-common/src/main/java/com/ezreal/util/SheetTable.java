@@ -0,0 +1,385 @@
+package com.ezreal.util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按列存储的sheet页内容
+ * 数值保存在double[]中，日期保存为long[]毫秒数，布尔值保存在BitSet中，字符串按字典编码为int[]，整个表共用一个字典；
+ * 每列用BitSet记录有值的行，空单元格和缺失的单元格不占用对象
+ * 同一列中出现多种类型(如表头是字符串、数据是数值)时，另用byte[]记录每行的类型，各类型的数组只增长到用到的最后一行
+ * asRows返回与readRows结果一致的只读视图，取值时才装箱，供原有按List<List<Object>>处理的代码使用
+ * 填充由ExcelReadUtils.readTable和SheetTableHandler完成，填充完成后可以在多线程中只读共用
+ *
+ * @author ezreal
+ */
+public final class SheetTable {
+
+    /**
+     * 单元格类型
+     */
+    public enum ValueType {
+        BLANK, NUMBER, DATE, BOOLEAN, STRING
+    }
+
+    private static final ValueType[] VALUE_TYPES = ValueType.values();
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final List<Column> columns = new ArrayList<>();
+
+    /**
+     * 字典，编码即下标
+     */
+    private final List<String> strings = new ArrayList<>();
+
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    /**
+     * 每行在sheet页中的行下标
+     */
+    private int[] rowNums = new int[INITIAL_CAPACITY];
+
+    private int rowCount;
+
+    private int columnCount;
+
+    SheetTable() {
+    }
+
+    /**
+     * 行数，不包含sheet页中不存在的行
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 列数，与readRows中每行的长度一致
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * 该行在sheet页中的行下标，从0开始
+     */
+    public int getRowNum(int row) {
+        checkRow(row);
+        return rowNums[row];
+    }
+
+    /**
+     * 字典中不同字符串的个数
+     */
+    public int getDictionarySize() {
+        return strings.size();
+    }
+
+    /**
+     * 单元格是否为空，空字符串同样视为空
+     */
+    public boolean isNull(int row, int column) {
+        return getType(row, column) == ValueType.BLANK;
+    }
+
+    public ValueType getType(int row, int column) {
+        checkRow(row);
+        Column col = column < columns.size() ? columns.get(column) : null;
+        return col == null ? ValueType.BLANK : VALUE_TYPES[col.typeAt(row)];
+    }
+
+    /**
+     * 获取数值，不装箱
+     *
+     * @throws IllegalStateException 单元格不是数值
+     */
+    public double getDouble(int row, int column) {
+        checkType(row, column, ValueType.NUMBER);
+        return columns.get(column).numbers[row];
+    }
+
+    /**
+     * 获取日期的毫秒数，不创建Date对象
+     *
+     * @throws IllegalStateException 单元格不是日期
+     */
+    public long getDateMillis(int row, int column) {
+        checkType(row, column, ValueType.DATE);
+        return columns.get(column).dates[row];
+    }
+
+    /**
+     * @throws IllegalStateException 单元格不是布尔值
+     */
+    public boolean getBoolean(int row, int column) {
+        checkType(row, column, ValueType.BOOLEAN);
+        return columns.get(column).booleans.get(row);
+    }
+
+    /**
+     * @throws IllegalStateException 单元格不是字符串
+     */
+    public String getString(int row, int column) {
+        checkType(row, column, ValueType.STRING);
+        return strings.get(columns.get(column).codes[row]);
+    }
+
+    /**
+     * 获取单元格的值，与readRows一致：数值为Double，日期为Date，空单元格为""
+     */
+    public Object get(int row, int column) {
+        switch (getType(row, column)) {
+            case NUMBER:
+                return columns.get(column).numbers[row];
+            case DATE:
+                return new Date(columns.get(column).dates[row]);
+            case BOOLEAN:
+                return columns.get(column).booleans.get(row);
+            case STRING:
+                return strings.get(columns.get(column).codes[row]);
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * 复制一列数值，不是数值的单元格为NaN
+     */
+    public double[] getDoubles(int column) {
+        double[] values = new double[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            values[row] = getType(row, column) == ValueType.NUMBER ? columns.get(column).numbers[row] : Double.NaN;
+        }
+        return values;
+    }
+
+    /**
+     * 只读的行视图，每行长度为getColumnCount()，内容与readRows一致
+     */
+    public List<List<Object>> asRows() {
+        return new AbstractList<List<Object>>() {
+            @Override
+            public List<Object> get(int index) {
+                checkRow(index);
+                return new AbstractList<Object>() {
+                    @Override
+                    public Object get(int column) {
+                        if (column < 0 || column >= columnCount) {
+                            throw new IndexOutOfBoundsException("column: " + column + ", columnCount: " + columnCount);
+                        }
+                        return SheetTable.this.get(index, column);
+                    }
+
+                    @Override
+                    public int size() {
+                        return columnCount;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+
+    ////////// 填充 //////////
+
+    /**
+     * 追加一行
+     *
+     * @param rowNum 在sheet页中的行下标
+     * @return 行号，用于设置该行的单元格
+     */
+    int appendRow(int rowNum) {
+        if (rowCount == rowNums.length) {
+            rowNums = Arrays.copyOf(rowNums, grow(rowNums.length, rowCount + 1));
+        }
+        rowNums[rowCount] = rowNum;
+        return rowCount++;
+    }
+
+    /**
+     * 列数至少为columnCount，多出的列全部为空
+     */
+    void ensureColumnCount(int columnCount) {
+        this.columnCount = Math.max(this.columnCount, columnCount);
+    }
+
+    /**
+     * 按readCell的结果设置单元格，null和""视为空
+     */
+    void set(int row, int column, Object value) {
+        if (value instanceof Double) {
+            setNumber(row, column, (Double) value);
+        } else if (value instanceof Date) {
+            setDate(row, column, ((Date) value).getTime());
+        } else if (value instanceof Boolean) {
+            setBoolean(row, column, (Boolean) value);
+        } else if (value instanceof Number) {
+            setNumber(row, column, ((Number) value).doubleValue());
+        } else {
+            setString(row, column, value == null ? null : value.toString());
+        }
+    }
+
+    void setNumber(int row, int column, double value) {
+        Column col = column(column);
+        col.numbers = ensureCapacity(col.numbers, row);
+        col.numbers[row] = value;
+        col.mark(row, ValueType.NUMBER);
+    }
+
+    void setDate(int row, int column, long millis) {
+        Column col = column(column);
+        col.dates = ensureCapacity(col.dates, row);
+        col.dates[row] = millis;
+        col.mark(row, ValueType.DATE);
+    }
+
+    void setBoolean(int row, int column, boolean value) {
+        Column col = column(column);
+        if (col.booleans == null) {
+            col.booleans = new BitSet();
+        }
+        col.booleans.set(row, value);
+        col.mark(row, ValueType.BOOLEAN);
+    }
+
+    /**
+     * 设置字符串，相同内容只保存一份，null和""视为空
+     */
+    void setString(int row, int column, String value) {
+        if (value == null || value.isEmpty()) {
+            if (column < columns.size() && columns.get(column) != null) {
+                columns.get(column).present.clear(row);
+            }
+            ensureColumnCount(column + 1);
+            return;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = strings.size();
+            strings.add(value);
+            codes.put(value, code);
+        }
+        Column col = column(column);
+        col.codes = ensureCapacity(col.codes, row);
+        col.codes[row] = code;
+        col.mark(row, ValueType.STRING);
+    }
+
+    private Column column(int column) {
+        while (columns.size() <= column) {
+            columns.add(null);
+        }
+        Column col = columns.get(column);
+        if (col == null) {
+            col = new Column();
+            columns.set(column, col);
+        }
+        ensureColumnCount(column + 1);
+        return col;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("row: " + row + ", rowCount: " + rowCount);
+        }
+    }
+
+    private void checkType(int row, int column, ValueType expected) {
+        ValueType type = getType(row, column);
+        if (type != expected) {
+            throw new IllegalStateException("第" + (row + 1) + "行第" + (column + 1) + "列的类型是" + type + "，不是" + expected);
+        }
+    }
+
+    private static int grow(int length, int minCapacity) {
+        return Math.max(minCapacity, Math.max(INITIAL_CAPACITY, length + (length >> 1)));
+    }
+
+    private static double[] ensureCapacity(double[] array, int row) {
+        if (array == null) {
+            return new double[grow(0, row + 1)];
+        }
+        return row < array.length ? array : Arrays.copyOf(array, grow(array.length, row + 1));
+    }
+
+    private static long[] ensureCapacity(long[] array, int row) {
+        if (array == null) {
+            return new long[grow(0, row + 1)];
+        }
+        return row < array.length ? array : Arrays.copyOf(array, grow(array.length, row + 1));
+    }
+
+    private static int[] ensureCapacity(int[] array, int row) {
+        if (array == null) {
+            return new int[grow(0, row + 1)];
+        }
+        return row < array.length ? array : Arrays.copyOf(array, grow(array.length, row + 1));
+    }
+
+    private static byte[] ensureCapacity(byte[] array, int row) {
+        return row < array.length ? array : Arrays.copyOf(array, grow(array.length, row + 1));
+    }
+
+    /**
+     * 一列的内容，只有用到的类型才会分配数组
+     */
+    private static final class Column {
+
+        /**
+         * 有值的行
+         */
+        private final BitSet present = new BitSet();
+
+        /**
+         * 只有一种类型时的类型
+         */
+        private byte kind = (byte) ValueType.BLANK.ordinal();
+
+        /**
+         * 出现多种类型后每行的类型，此前为null
+         */
+        private byte[] types;
+
+        private double[] numbers;
+
+        private long[] dates;
+
+        private BitSet booleans;
+
+        private int[] codes;
+
+        private void mark(int row, ValueType type) {
+            byte ordinal = (byte) type.ordinal();
+            present.set(row);
+            if (types != null) {
+                types = ensureCapacity(types, row);
+                types[row] = ordinal;
+            } else if (kind == ValueType.BLANK.ordinal()) {
+                kind = ordinal;
+            } else if (kind != ordinal) {
+                types = new byte[grow(0, Math.max(row, present.length()) + 1)];
+                Arrays.fill(types, kind);
+                types[row] = ordinal;
+            }
+        }
+
+        private byte typeAt(int row) {
+            if (!present.get(row)) {
+                return (byte) ValueType.BLANK.ordinal();
+            }
+            return types != null ? types[row] : kind;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ezreal.util;
+
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+
+/**
+ * 把sax解析的结果直接写入SheetTable
+ * XSSFSheetXMLHandler交给中间处理的是格式化后的文本，因此所有单元格都按字符串保存(去掉首尾空格，与SimpleSheetContentsHandler一致)，
+ * 重复的文本在字典中只保存一份，每个不同的文本只trim一次
+ * 一个实例只用于一个sheet页
+ *
+ * @author ezreal
+ */
+public class SheetTableHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+    private final SheetTable table = new SheetTable();
+
+    private final StringDictionary dictionary = new StringDictionary(Integer.MAX_VALUE);
+
+    private int row = -1;
+
+    public SheetTable getTable() {
+        return table;
+    }
+
+    @Override
+    public void startRow(int rowNum) {
+        row = table.appendRow(rowNum);
+    }
+
+    @Override
+    public void endRow(int rowNum) {
+    }
+
+    @Override
+    public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+        table.setString(row, ExcelSheetReader.getColumnIndex(cellReference), dictionary.trim(formattedValue));
+    }
+
+    @Override
+    public void headerFooter(String text, boolean isHeader, String tagName) {
+    }
+}
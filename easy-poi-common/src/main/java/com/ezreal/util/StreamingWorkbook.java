@@ -0,0 +1,182 @@
+package com.ezreal.util;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.poi.POIXMLTypeLoader;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SheetDataWriter;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.xmlbeans.XmlOptions;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorksheet;
+
+import javax.xml.namespace.QName;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 边写边输出的工作簿
+ * SXSSFWorkbook把每个sheet页的行先写入临时文件，全部写完后再和其他部分一起打包；这里sheet页的行刷出时直接写入输出流中该sheet页的zip条目，
+ * 不经过临时文件，第一批行刷出时文件就已经开始输出。样式表、workbook.xml等其余部分在finish时写在sheet页之后，zip中条目的顺序不影响打开
+ * 一个zip同时只能写一个条目，sheet页只能依次写入：创建新的sheet页时前一个sheet页自动结束，之后不能再向它写入行
+ *
+ * @author ezreal
+ */
+final class StreamingWorkbook extends SXSSFWorkbook {
+
+    private static final String SHEET_DATA = "<sheetData/>";
+
+    private final ZipOutputStream zip;
+
+    /**
+     * 已经写入的sheet页条目，finish时不再从模板中复制
+     */
+    private final Set<String> sheetEntries = new HashSet<>();
+
+    /**
+     * 正在写入的sheet页，没有时为null
+     */
+    private SXSSFSheet currentSheet;
+
+    private SheetDataWriter currentWriter;
+
+    /**
+     * 当前sheet页sheetData之后的部分
+     */
+    private String currentTail;
+
+    /**
+     * @param out                 输出流，不会被关闭
+     * @param rowAccessWindowSize 内存中保留的行数
+     */
+    StreamingWorkbook(OutputStream out, int rowAccessWindowSize) {
+        super(rowAccessWindowSize);
+        this.zip = new ZipOutputStream(new NonClosingOutputStream(out));
+    }
+
+    @Override
+    public SXSSFSheet createSheet() {
+        return createSheet("Sheet" + getNumberOfSheets());
+    }
+
+    @Override
+    public SXSSFSheet createSheet(String sheetName) {
+        try {
+            finishSheet();
+            SXSSFSheet sheet = super.createSheet(sheetName);
+            XSSFSheet xssfSheet = getXSSFWorkbook().getSheet(sheet.getSheetName());
+            String entryName = xssfSheet.getPackagePart().getPartName().getName().substring(1);
+            String xml = worksheetXml(xssfSheet.getCTWorksheet());
+            int sheetData = xml.indexOf(SHEET_DATA);
+            if (sheetData < 0) {
+                throw new ServiceException(sheetName + "的模板中没有sheetData");
+            }
+            // 行写入前先写出sheetData之前的部分，此时行还在SheetDataWriter的缓冲中
+            zip.putNextEntry(new ZipEntry(entryName));
+            zip.write((xml.substring(0, sheetData) + "<sheetData>").getBytes(StandardCharsets.UTF_8));
+            sheetEntries.add(entryName);
+            currentSheet = sheet;
+            currentTail = "</sheetData>" + xml.substring(sheetData + SHEET_DATA.length());
+            return sheet;
+        } catch (IOException e) {
+            throw new ServiceException("导出文件写入失败", e);
+        }
+    }
+
+    /**
+     * 结束当前sheet页：剩余的行全部写入zip条目并补上sheetData之后的部分
+     */
+    void finishSheet() throws IOException {
+        if (currentSheet == null) {
+            return;
+        }
+        currentSheet.flushRows();
+        currentWriter.close();
+        zip.write(currentTail.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+        currentSheet = null;
+        currentWriter = null;
+        currentTail = null;
+    }
+
+    /**
+     * 结束最后一个sheet页，写出样式表、workbook.xml等其余部分并结束zip
+     * 其余部分取自只含空sheet页的XSSFWorkbook，体积与行数无关
+     */
+    void finish() throws IOException {
+        finishSheet();
+        ByteArrayOutputStream template = new ByteArrayOutputStream();
+        getXSSFWorkbook().write(template);
+        try (ZipInputStream entries = new ZipInputStream(new ByteArrayInputStream(template.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = entries.getNextEntry()) != null) {
+                if (!sheetEntries.contains(entry.getName())) {
+                    zip.putNextEntry(new ZipEntry(entry.getName()));
+                    IOUtils.copy(entries, zip);
+                    zip.closeEntry();
+                }
+            }
+        }
+        zip.close();
+    }
+
+    @Override
+    protected SheetDataWriter createSheetDataWriter() throws IOException {
+        currentWriter = new ZipEntryDataWriter();
+        return currentWriter;
+    }
+
+    /**
+     * 与XSSFSheet写出时的格式一致，XSSFSheet写出前会去掉空的cols节点，否则excel打开时会提示修复
+     */
+    private static String worksheetXml(CTWorksheet template) throws IOException {
+        CTWorksheet worksheet = (CTWorksheet) template.copy();
+        while (worksheet.sizeOfColsArray() > 0 && worksheet.getColsArray(0).sizeOfColArray() == 0) {
+            worksheet.removeCols(0);
+        }
+        XmlOptions options = new XmlOptions(POIXMLTypeLoader.DEFAULT_XML_OPTIONS);
+        options.setSaveSyntheticDocumentElement(new QName(CTWorksheet.type.getName().getNamespaceURI(), "worksheet"));
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        worksheet.save(xml, options);
+        return new String(xml.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 行直接写入当前的zip条目，不创建临时文件
+     * 父类构造时就会调用createTempFile和createWriter，此时只能使用外部类的字段
+     */
+    private final class ZipEntryDataWriter extends SheetDataWriter {
+
+        private ZipEntryDataWriter() throws IOException {
+            super();
+        }
+
+        @Override
+        public File createTempFile() {
+            return null;
+        }
+
+        @Override
+        public Writer createWriter(File fd) {
+            return new BufferedWriter(new OutputStreamWriter(new NonClosingOutputStream(zip), StandardCharsets.UTF_8));
+        }
+
+        /**
+         * 没有临时文件需要删除
+         */
+        @Override
+        protected void finalize() {
+        }
+    }
+}
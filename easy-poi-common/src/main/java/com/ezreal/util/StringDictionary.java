@@ -0,0 +1,100 @@
+package com.ezreal.util;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * 单次读取内的字符串字典
+ * 状态、地区、币种这类重复的单元格文本只保留一个去掉首尾空格后的实例，每个不同的字符串只trim一次
+ * 共享字符串按下标缓存，同一个下标不再查找和trim；其余文本按内容缓存
+ * 超过上限后不再加入新的字符串，已有的照常返回，避免高基数的列让字典无限增长
+ * 每次读取新建一个，不支持多线程
+ *
+ * @author ezreal
+ */
+public final class StringDictionary {
+
+    /**
+     * 按下标缓存的共享字符串的最大下标，更大的下标按内容缓存
+     */
+    private static final int MAX_INDEXED = 1 << 20;
+
+    private final int maxSize;
+
+    /**
+     * 原始文本 -> 去掉首尾空格后的实例
+     */
+    private final Map<String, String> byContent = new HashMap<>();
+
+    private String[] byIndex = new String[0];
+
+    private int indexedCount;
+
+    /**
+     * @param maxSize 最多保存的字符串个数
+     */
+    public StringDictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 去掉首尾空格，内容相同时返回同一个实例
+     */
+    public String trim(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String canonical = byContent.get(raw);
+        if (canonical == null) {
+            String trimmed = StringUtils.trim(raw);
+            canonical = byContent.get(trimmed);
+            if (canonical == null) {
+                canonical = trimmed;
+                put(trimmed, trimmed);
+            }
+            put(raw, canonical);
+        }
+        return canonical;
+    }
+
+    /**
+     * 按下标获取去掉首尾空格的共享字符串，同一个下标只加载一次
+     *
+     * @param index  共享字符串下标
+     * @param loader 按下标加载共享字符串
+     */
+    public String sharedString(int index, IntFunction<String> loader) {
+        if (index < 0 || index >= MAX_INDEXED) {
+            return trim(loader.apply(index));
+        }
+        if (index < byIndex.length && byIndex[index] != null) {
+            return byIndex[index];
+        }
+        String value = trim(loader.apply(index));
+        if (indexedCount < maxSize) {
+            if (index >= byIndex.length) {
+                byIndex = Arrays.copyOf(byIndex, Math.min(MAX_INDEXED, Math.max(index + 1, byIndex.length * 2)));
+            }
+            byIndex[index] = value;
+            indexedCount++;
+        }
+        return value;
+    }
+
+    /**
+     * 按内容保存的字符串个数
+     */
+    public int size() {
+        return byContent.size();
+    }
+
+    private void put(String key, String value) {
+        if (byContent.size() < maxSize) {
+            byContent.put(key, value);
+        }
+    }
+}
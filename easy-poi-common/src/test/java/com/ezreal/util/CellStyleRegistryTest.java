@@ -0,0 +1,42 @@
+package com.ezreal.util;
+
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CellStyleRegistryTest {
+
+    @Test
+    public void stylesAreInternedByAttributes() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            CellStyleRegistry registry = new CellStyleRegistry(workbook);
+            int initialStyles = workbook.getNumCellStyles();
+            int initialFonts = workbook.getNumberOfFonts();
+
+            CellStyleSpec header = new CellStyleSpec().setBold(true).setFillColor(IndexedColors.GREY_25_PERCENT.getIndex())
+                    .setHorizontalAlignment(HorizontalAlignment.CENTER);
+            for (int i = 0; i < 10_000; i++) {
+                assertSame(registry.getStyle("#,##0.00"), registry.getStyle(CellStyleSpec.of("#,##0.00")));
+                assertSame(registry.getStyle(header), registry.getStyle(header.copy()));
+            }
+            // 登记后修改描述不影响已创建的样式
+            header.setItalic(true);
+            assertNotSame(registry.getStyle(header), registry.getStyle(header.copy().setItalic(false)));
+            // 字体只有粗体和粗斜体两种，填充和对齐不同的样式共用字体
+            registry.getStyle(new CellStyleSpec().setBold(true));
+
+            assertEquals(4, registry.size());
+            assertEquals(initialStyles + 4, workbook.getNumCellStyles());
+            assertEquals(initialFonts + 2, workbook.getNumberOfFonts());
+            assertEquals("#,##0.00", registry.getStyle("#,##0.00").getDataFormatString());
+            assertEquals(registry.getDataFormat("yyyy-mm-dd"), workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+        }
+    }
+}
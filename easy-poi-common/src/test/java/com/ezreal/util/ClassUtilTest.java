@@ -0,0 +1,111 @@
+package com.ezreal.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClassUtilTest {
+
+    @Test
+    public void fieldsResolveThroughSuperclassesWithSubclassFirst() {
+        Field name = ClassUtil.getAccessibleField(Child.class, "name");
+        assertEquals(Child.class, name.getDeclaringClass());
+        assertEquals(Parent.class, ClassUtil.getAccessibleField(Child.class, "id").getDeclaringClass());
+        assertTrue(ClassUtil.getAccessibleField(Child.class, "id").isAccessible());
+        assertSame(name, ClassUtil.getAccessibleField(Child.class, "name"));
+        assertNull(ClassUtil.getAccessibleField(Child.class, "missing"));
+    }
+
+    @Test
+    public void gettersAndSettersAreCachedIncludingMisses() {
+        Method getter = ClassUtil.getGetterMethod(Child.class, "enabled");
+        assertEquals("isEnabled", getter.getName());
+        assertSame(getter, ClassUtil.getGetterMethod(Child.class, "enabled"));
+        assertEquals("getId", ClassUtil.getGetterMethod(Child.class, "id").getName());
+        assertNull(ClassUtil.getGetterMethod(Child.class, "missing"));
+        assertNull(ClassUtil.getGetterMethod(Child.class, "missing"));
+
+        assertEquals("setId", ClassUtil.getSetterMethod(Child.class, "id", Long.class).getName());
+        assertNull(ClassUtil.getSetterMethod(Child.class, "id", String.class));
+    }
+
+    @Test
+    public void reflectionUtilUsesCachedMetadata() {
+        Child child = new Child();
+        ReflectionUtil.setProperty(child, "id", 3L);
+        ReflectionUtil.setProperty(child, "name", "child");
+        ReflectionUtil.setFieldValue(child, "enabled", true);
+        assertEquals(Long.valueOf(3L), ReflectionUtil.getProperty(child, "id"));
+        assertEquals("child", ReflectionUtil.getProperty(child, "name"));
+        assertEquals(Boolean.TRUE, ReflectionUtil.getProperty(child, "enabled"));
+    }
+
+    @Test
+    public void annotationIndexIsBuiltOnceAndImmutable() {
+        Set<Field> fields = ClassUtil.getAnnotatedPublicFields(Child.class, Column.class);
+        assertEquals("enabled,id", fields.stream().map(Field::getName).collect(Collectors.joining(",")));
+        assertSame(fields, ClassUtil.getAnnotatedPublicFields(Child.class, Column.class));
+        assertThrows(UnsupportedOperationException.class, fields::clear);
+
+        // getId的注解来自接口
+        Set<Method> methods = ClassUtil.getAnnotatedPublicMethods(Child.class, Column.class);
+        assertEquals("getId", methods.stream().map(Method::getName).sorted().collect(Collectors.joining(",")));
+        assertTrue(ClassUtil.getAnnotatedPublicMethods(Object.class, Column.class).isEmpty());
+
+        assertTrue(ClassUtil.getAllAnnotations(Child.class).stream().anyMatch(a -> a instanceof Column));
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.FIELD, ElementType.METHOD})
+    public @interface Column {
+    }
+
+    public interface Identified {
+
+        @Column
+        Long getId();
+    }
+
+    @Column
+    public static class Parent implements Identified {
+
+        @Column
+        private Long id;
+
+        private String name;
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+    }
+
+    public static class Child extends Parent {
+
+        private String name;
+
+        @Column
+        private boolean enabled;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ezreal.util;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.LocaleUtil;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ExcelDatesTest {
+
+    @Test
+    public void matchesDateUtil() {
+        double[] values = {0, 0.5, 1, 59, 60, 61, 43000, 43000.25, 43000.999999, 44561.123456789, 2958465.99};
+        for (double value : values) {
+            assertEquals(DateUtil.getJavaDate(value, false), ExcelDates.toDate(value, false), "1900: " + value);
+            assertEquals(DateUtil.getJavaDate(value, true), ExcelDates.toDate(value, true), "1904: " + value);
+        }
+        assertEquals(LocalDate.of(1900, 1, 1), ExcelDates.toLocalDate(1, false));
+        assertEquals(LocalDate.of(1900, 3, 1), ExcelDates.toLocalDate(61, false));
+        assertEquals(LocalDateTime.of(2017, 9, 23, 6, 0), ExcelDates.toLocalDateTime(43001.25, false));
+        assertEquals(LocalDate.of(1904, 1, 2), ExcelDates.toLocalDate(1, true));
+        assertNull(ExcelDates.toDate(-1, false));
+    }
+
+    @Test
+    public void toExcelDateMatchesDateUtil() {
+        LocalDateTime[] values = {LocalDateTime.of(1900, 1, 1, 0, 0), LocalDateTime.of(1900, 2, 28, 12, 0),
+                LocalDateTime.of(1900, 3, 1, 0, 0), LocalDateTime.of(2017, 9, 23, 6, 0, 30, 250_000_000),
+                LocalDateTime.of(1904, 1, 2, 0, 0), LocalDateTime.of(9999, 12, 31, 23, 59, 59)};
+        for (LocalDateTime value : values) {
+            Date date = Date.from(value.atZone(LocaleUtil.getUserTimeZone().toZoneId()).toInstant());
+            assertEquals(DateUtil.getExcelDate(date, false), ExcelDates.toExcelDate(value, false), 1e-9, "1900: " + value);
+            assertEquals(DateUtil.getExcelDate(date, true), ExcelDates.toExcelDate(date, true), 1e-9, "1904: " + value);
+            assertEquals(value, ExcelDates.toLocalDateTime(ExcelDates.toExcelDate(value, false), false));
+        }
+        assertEquals(-1, ExcelDates.toExcelDate(LocalDate.of(1899, 12, 31), false));
+        assertEquals(-1, ExcelDates.toExcelDate(LocalDate.of(1903, 12, 31), true));
+    }
+}
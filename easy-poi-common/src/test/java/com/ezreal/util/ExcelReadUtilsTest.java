@@ -0,0 +1,554 @@
+package com.ezreal.util;
+
+import lombok.Data;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCellFormula;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellFormulaType;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExcelReadUtilsTest {
+
+    private File file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("excel-read", ".xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream os = new FileOutputStream(file)) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+
+            Sheet sheet = workbook.createSheet("用户");
+            Row head = sheet.createRow(0);
+            head.createCell(0).setCellValue("姓名");
+            head.createCell(1).setCellValue("年龄");
+            head.createCell(2).setCellValue("生日");
+            head.createCell(3).setCellValue("启用");
+
+            for (int i = 1; i <= 5; i++) {
+                // 留一个空行
+                if (i == 3) {
+                    continue;
+                }
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue(" 用户" + i + " ");
+                row.createCell(1).setCellValue(20 + i);
+                row.createCell(2).setCellValue(Date.from(LocalDate.of(2020, 9, 13 + i).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+                row.getCell(2).setCellStyle(dateStyle);
+                row.createCell(3).setCellValue(i % 2 == 0);
+            }
+            // 不规则的行
+            Row ragged = sheet.createRow(7);
+            ragged.createCell(4).setCellFormula("SUM(B2:B3)");
+            ragged.createCell(5).setCellValue("尾部");
+
+            Sheet remark = workbook.createSheet("备注");
+            remark.createRow(0).createCell(0).setCellValue("说明");
+            remark.createRow(1).createCell(1).setCellValue(" 第二页 ");
+            workbook.write(os);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * 流式读取与DOM读取结果一致
+     */
+    @Test
+    public void iterateRowsMatchesReadRows() {
+        List<List<Object>> expected = ExcelReadUtils.readRows(file.getPath());
+
+        List<List<Object>> actual = new ArrayList<>();
+        try (ExcelRowIterator iterator = ExcelReadUtils.iterateRows(file)) {
+            iterator.forEachRemaining(actual::add);
+        }
+        // POI写出的dimension会多算一列，只比较有效内容
+        assertEquals(trimTail(expected), trimTail(actual));
+    }
+
+    /**
+     * 预览只读取前几行，结果与整体读取一致
+     */
+    @Test
+    public void previewMatchesFullRead() {
+        assertEquals(ExcelReadUtils.getExcelContextByPathAndStartNumber(file.getPath(), 0, 2), ExcelReadUtils.getContextByHeadNumber(file.getPath(), 2));
+        assertEquals(ExcelReadUtils.getExcelContextByPathAndStartNumber(file.getPath(), 0, 20), ExcelReadUtils.getContextByHeadNumber(file.getPath(), 20));
+        assertEquals(Arrays.asList("姓名", "年龄", "生日", "启用", ""), ExcelReadUtils.getContextByFirstRow(file.getPath()));
+    }
+
+    /**
+     * 合并单元格与原来一样每个单元格都填充左上角的值，previewRows只有左上角有值
+     */
+    @Test
+    public void previewFillsMergedRegions() throws IOException {
+        File mergedFile = Files.createTempFile("excel-merged", ".xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream os = new FileOutputStream(mergedFile)) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("标题");
+            sheet.addMergedRegion(CellRangeAddress.valueOf("A1:C1"));
+            Row head = sheet.createRow(1);
+            head.createCell(0).setCellValue("姓名");
+            head.createCell(1).setCellValue("年龄");
+            head.createCell(2).setCellValue("备注");
+            for (int i = 2; i < 100; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("用户" + i);
+                row.createCell(1).setCellValue(i);
+            }
+            sheet.addMergedRegion(CellRangeAddress.valueOf("C3:C4"));
+            sheet.getRow(2).createCell(2).setCellValue("同组");
+            workbook.write(os);
+        }
+        try {
+            List<List<Object>> rows = ExcelReadUtils.getContextByHeadNumber(mergedFile.getPath(), 3);
+            assertEquals(ExcelReadUtils.getExcelContextByPathAndStartNumber(mergedFile.getPath(), 0, 3), rows);
+            assertEquals(Arrays.asList("标题", "标题", "标题", ""), rows.get(0));
+            assertEquals("同组", rows.get(3).get(2));
+            assertEquals(Arrays.asList("标题", "标题", "标题", ""), ExcelReadUtils.getContextByFirstRow(mergedFile.getPath()));
+
+            List<List<Object>> preview = ExcelReadUtils.previewRows(mergedFile, 3);
+            assertEquals(Arrays.asList("标题", "", "", ""), preview.get(0));
+            assertEquals("", preview.get(3).get(2));
+        } finally {
+            mergedFile.delete();
+        }
+    }
+
+    /**
+     * 按列保存的结果与readRows一致，数值不装箱，字符串按字典保存
+     */
+    @Test
+    public void sheetTableMatchesReadRows() {
+        List<List<Object>> expected = ExcelReadUtils.readRows(file.getPath());
+        SheetTable table = ExcelReadUtils.readTable(file);
+        assertEquals(expected, table.asRows());
+        assertEquals(expected, ExcelReadUtils.readTable(ExcelReadUtils.getWorkbook(file).getSheetAt(0)).asRows());
+
+        assertEquals(SheetTable.ValueType.STRING, table.getType(0, 1));
+        assertEquals(21d, table.getDouble(1, 1));
+        assertEquals(SheetTable.ValueType.DATE, table.getType(1, 2));
+        assertTrue(table.isNull(1, 4));
+        assertEquals(4, table.getRowNum(3));
+        assertThrows(IllegalStateException.class, () -> table.getDouble(0, 1));
+        assertThrows(UnsupportedOperationException.class, () -> table.asRows().get(0).set(0, ""));
+
+        SheetTableHandler handler = new SheetTableHandler();
+        ExcelReadUtils.readExcelByFile(file.getPath(), handler);
+        SheetTable strings = handler.getTable();
+        assertEquals("用户1", strings.getString(1, 0));
+        assertEquals("21", strings.getString(1, 1));
+        assertEquals("TRUE", strings.getString(2, 3));
+        // 启用列只有TRUE/FALSE两个值
+        assertEquals(strings.getDictionarySize(), strings.asRows().stream().flatMap(List::stream).filter(v -> !"".equals(v)).distinct().count());
+    }
+
+    /**
+     * 开启字符串字典后，重复的文本只保留一个实例，内容不变
+     */
+    @Test
+    public void stringDictionarySharesRepeatedStrings() throws IOException {
+        File dictionaryFile = Files.createTempFile("excel-dictionary", ".xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            for (int i = 0; i < 6; i++) {
+                sheet.createRow(i).createCell(0).setCellValue(i % 2 == 0 ? " 北京 " : "上海");
+            }
+            List<List<Object>> rows = ExcelReadUtils.readRows(sheet, new StringDictionary(16));
+            assertEquals(ExcelReadUtils.readRows(sheet), rows);
+            assertSame(rows.get(0).get(0), rows.get(4).get(0));
+            assertEquals("北京", rows.get(0).get(0));
+            try (FileOutputStream os = new FileOutputStream(dictionaryFile)) {
+                workbook.write(os);
+            }
+
+            List<List<Object>> streamed = new ArrayList<>();
+            try (ExcelRowIterator iterator = ExcelReadUtils.iterateRows(dictionaryFile, ExcelReadOptions.defaults().setStringDictionarySize(16))) {
+                iterator.forEachRemaining(streamed::add);
+            }
+            assertEquals(trimTail(rows), trimTail(streamed));
+            assertSame(streamed.get(1).get(0), streamed.get(5).get(0));
+        } finally {
+            dictionaryFile.delete();
+        }
+
+        // 超过上限后不再加入新的字符串
+        StringDictionary dictionary = new StringDictionary(1);
+        assertSame(dictionary.trim("a"), dictionary.trim(new String("a")));
+        assertEquals("b", dictionary.trim(" b "));
+        assertEquals(1, dictionary.size());
+    }
+
+    /**
+     * 公式读取保存的计算结果，没有保存结果的按需计算
+     */
+    @Test
+    public void formulaCellsReadCachedResults() throws IOException {
+        File formulaFile = Files.createTempFile("excel-formula", ".xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Row row = workbook.createSheet().createRow(0);
+            row.createCell(0).setCellValue(2);
+            row.createCell(1).setCellFormula("A1*3");
+            row.createCell(2).setCellFormula("A1&\" 件\"");
+            row.createCell(3).setCellFormula("A1*4");
+            FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            evaluator.evaluateFormulaCell(row.getCell(1));
+            evaluator.evaluateFormulaCell(row.getCell(2));
+            // D1没有保存计算结果
+            try (FileOutputStream os = new FileOutputStream(formulaFile)) {
+                workbook.write(os);
+            }
+        }
+        try {
+            Sheet sheet = ExcelReadUtils.getWorkbook(formulaFile).getSheetAt(0);
+            // 默认返回公式本身，结果为字符串的公式无法判断日期格式
+            assertThrows(ServiceException.class, () -> ExcelReadUtils.readRows(sheet));
+            assertEquals(Arrays.asList(2d, 6d, "2 件", "", ""),
+                    ExcelReadUtils.readRows(sheet, ExcelReadOptions.defaults().setFormulaMode(FormulaMode.CACHED_RESULT)).get(0));
+            assertEquals(Arrays.asList(2d, 6d, "2 件", 8d, ""),
+                    ExcelReadUtils.readRows(sheet, ExcelReadOptions.defaults().setFormulaMode(FormulaMode.CACHED_RESULT_OR_EVALUATE)).get(0));
+
+            try (ExcelRowIterator iterator = ExcelReadUtils.iterateRows(formulaFile, ExcelReadOptions.defaults().setFormulaMode(FormulaMode.CACHED_RESULT))) {
+                assertEquals(Arrays.asList(2d, 6d, "2 件", ""), iterator.next().subList(0, 4));
+            }
+        } finally {
+            formulaFile.delete();
+        }
+    }
+
+    /**
+     * 共享公式只有主单元格保存公式文本，流式读取时按偏移平移，与readRows结果一致
+     */
+    @Test
+    public void sharedFormulasAreExpanded() throws IOException {
+        File formulaFile = Files.createTempFile("excel-shared-formula", ".xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            XSSFSheet sheet = workbook.createSheet();
+            for (int i = 0; i < 3; i++) {
+                XSSFRow row = sheet.createRow(i);
+                row.createCell(0).setCellValue(i + 1);
+                for (int j = 1; j < 3; j++) {
+                    CTCellFormula formula = row.createCell(j).getCTCell().addNewF();
+                    formula.setT(STCellFormulaType.SHARED);
+                    formula.setSi(0);
+                    if (i == 0 && j == 1) {
+                        // 向下向右填充的主单元格
+                        formula.setRef("B1:C3");
+                        formula.setStringValue("A1*$A$1+SUM($A1:A$3)");
+                    }
+                    row.getCell(j).getCTCell().setV("0");
+                }
+            }
+            try (FileOutputStream os = new FileOutputStream(formulaFile)) {
+                workbook.write(os);
+            }
+        }
+        try {
+            List<List<Object>> expected = trimTail(ExcelReadUtils.readRows(formulaFile.getPath()));
+            assertEquals("B3*$A$1+SUM($A3:B$3)", expected.get(2).get(2));
+
+            List<List<Object>> rows = new ArrayList<>();
+            try (ExcelRowIterator iterator = ExcelReadUtils.iterateRows(formulaFile)) {
+                iterator.forEachRemaining(rows::add);
+            }
+            assertEquals(expected, trimTail(rows));
+
+            // 主单元格所在列未被选中时也能还原公式
+            try (ExcelRowIterator iterator = ExcelReadUtils.iterateRows(formulaFile,
+                    ExcelReadOptions.defaults().setColumnProjection(ColumnProjection.ofIndexes(2)))) {
+                assertEquals(Arrays.asList("B1*$A$1+SUM($A1:B$3)"), iterator.next());
+                assertEquals(Arrays.asList("B2*$A$1+SUM($A2:B$3)"), iterator.next());
+                assertEquals(Arrays.asList("B3*$A$1+SUM($A3:B$3)"), iterator.next());
+            }
+        } finally {
+            formulaFile.delete();
+        }
+    }
+
+    /**
+     * 按名称或下标流式读取其他sheet页
+     */
+    @Test
+    public void iterateRowsBySheetNameAndIndex() {
+        List<List<Object>> expected = trimTail(ExcelReadUtils.readRowsByPathAndSheetName(file.getPath(), "备注"));
+        assertEquals(Arrays.asList(Arrays.asList("说明"), Arrays.asList("", "第二页")), expected);
+
+        List<List<Object>> byName = new ArrayList<>();
+        try (ExcelRowIterator iterator = ExcelReadUtils.iterateRows(file, "备注")) {
+            iterator.forEachRemaining(byName::add);
+        }
+        List<List<Object>> byIndex = new ArrayList<>();
+        try (ExcelRowIterator iterator = ExcelReadUtils.iterateRows(file, 1)) {
+            iterator.forEachRemaining(byIndex::add);
+        }
+        assertEquals(expected, trimTail(byName));
+        assertEquals(expected, trimTail(byIndex));
+        assertThrows(ServiceException.class, () -> ExcelReadUtils.iterateRows(file, "不存在"));
+        assertThrows(ServiceException.class, () -> ExcelReadUtils.iterateRows(file, 2));
+    }
+
+    /**
+     * 一次遍历读取多个sheet页，结果与逐个读取一致
+     */
+    @Test
+    public void readMultipleSheetsInOnePass() {
+        Map<String, List<List<Object>>> rows = ExcelReadUtils.readRowsBySheetNames(file, Arrays.asList("备注", "用户"));
+        assertEquals(Arrays.asList("备注", "用户"), new ArrayList<>(rows.keySet()));
+        assertEquals(ExcelReadUtils.readRowsByPathAndSheetName(file.getPath(), "用户"), rows.get("用户"));
+        assertEquals(ExcelReadUtils.readRowsByPathAndSheetName(file.getPath(), "备注"), rows.get("备注"));
+
+        Map<String, List<String>> cells = new LinkedHashMap<>();
+        ExcelReadUtils.readExcelBySheetNames(file.getPath(), Arrays.asList("备注", "用户"), sheetName -> new ExcelReadUtils.SimpleSheetContentsHandler() {
+            @Override
+            public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+                cells.computeIfAbsent(sheetName, key -> new ArrayList<>()).add(cellReference);
+            }
+        });
+        // 按工作簿中的顺序解析
+        assertEquals(Arrays.asList("用户", "备注"), new ArrayList<>(cells.keySet()));
+        assertEquals(Arrays.asList("A1", "B2"), cells.get("备注"));
+        assertThrows(ServiceException.class, () -> ExcelReadUtils.readExcelByFile(file.getPath(), "不存在", null));
+    }
+
+    /**
+     * 列投影在DOM、StAX和SAX三种读取方式下结果一致
+     */
+    @Test
+    public void columnProjectionReadsSelectedColumnsOnly() {
+        List<List<Object>> byColumns = ExcelReadUtils.readRows(file.getPath(), ColumnProjection.ofColumns("C", "A"));
+        assertEquals(Arrays.asList("生日", "姓名"), byColumns.get(0));
+        assertEquals(Arrays.asList("", ""), byColumns.get(byColumns.size() - 1));
+        List<List<Object>> byHeaders = ExcelReadUtils.readRows(file.getPath(), ColumnProjection.ofHeaders("生日", "姓名"));
+        assertEquals(byColumns, byHeaders);
+        List<List<Object>> full = ExcelReadUtils.readRows(file.getPath());
+        for (int i = 0; i < full.size(); i++) {
+            assertEquals(Arrays.asList(full.get(i).get(2), full.get(i).get(0)), byColumns.get(i));
+        }
+
+        List<List<Object>> streamed = new ArrayList<>();
+        ExcelReadOptions options = ExcelReadOptions.defaults().setColumnProjection(ColumnProjection.ofHeaders("生日", "姓名"));
+        try (ExcelRowIterator iterator = ExcelReadUtils.iterateRows(file, options)) {
+            iterator.forEachRemaining(streamed::add);
+        }
+        assertEquals(byColumns, streamed);
+
+        List<String> references = new ArrayList<>();
+        ExcelReadUtils.readExcelByFile(file.getPath(), ColumnProjection.ofHeaders("生日", "姓名"), new ExcelReadUtils.SimpleSheetContentsHandler() {
+            @Override
+            public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+                references.add(cellReference);
+            }
+        });
+        assertEquals(Arrays.asList("A1", "C1", "A2", "C2", "A3", "C3", "A5", "C5", "A6", "C6"), references);
+
+        assertThrows(ServiceException.class, () -> ExcelReadUtils.readRows(file.getPath(), ColumnProjection.ofHeaders("不存在")));
+    }
+
+    /**
+     * 上传文件转存临时文件后读取结果不变
+     */
+    @Test
+    public void readAllRowsFromMultipartFile() throws IOException {
+        MockMultipartFile uploadFile = new MockMultipartFile("file", "用户.xlsx", null, Files.readAllBytes(file.toPath()));
+        assertEquals(ExcelReadUtils.readAllRows(file.getPath()), ExcelReadUtils.readAllRows(uploadFile));
+
+        MockMultipartFile brokenFile = new MockMultipartFile("file", "broken.xlsx", null, new byte[]{1, 2, 3});
+        assertThrows(ServiceException.class, () -> ExcelReadUtils.readAllRows(brokenFile));
+    }
+
+    /**
+     * 共享字符串写入临时文件后，流式读取和SAX读取结果不变
+     */
+    @Test
+    public void iterateRowsWithFileBackedSharedStrings() {
+        List<List<Object>> expected = ExcelReadUtils.readRows(file.getPath());
+
+        ExcelReadOptions options = ExcelReadOptions.defaults()
+                .setSharedStringsSpillThreshold(0)
+                .setSharedStringsCacheSize(1);
+        List<List<Object>> actual = new ArrayList<>();
+        try (ExcelRowIterator iterator = ExcelReadUtils.iterateRows(file, options)) {
+            iterator.forEachRemaining(actual::add);
+        }
+        assertEquals(trimTail(expected), trimTail(actual));
+
+        // SAX读取同样按选项读取共享字符串
+        SheetTableHandler inMemory = new SheetTableHandler();
+        ExcelReadUtils.readExcelByFile(file.getPath(), inMemory);
+        SheetTableHandler fileBacked = new SheetTableHandler();
+        ExcelReadUtils.readExcelByFile(file.getPath(), options, fileBacked);
+        SheetTableHandler lazy = new SheetTableHandler();
+        ExcelReadUtils.readExcelByFile(file.getPath(), ExcelReadOptions.defaults().setLazySharedStrings(true), lazy);
+        assertEquals(inMemory.getTable().asRows(), fileBacked.getTable().asRows());
+        assertEquals(inMemory.getTable().asRows(), lazy.getTable().asRows());
+        assertEquals("用户1", fileBacked.getTable().getString(1, 0));
+    }
+
+    /**
+     * 并行读取与逐个读取结果一致，并保持sheet页顺序
+     */
+    @Test
+    public void readAllRowsInParallelMatchesReadAllRows() throws IOException {
+        File multiSheetFile = Files.createTempFile("excel-sheets", ".xlsx").toFile();
+        try {
+            try (XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream os = new FileOutputStream(multiSheetFile)) {
+                for (int s = 0; s < 6; s++) {
+                    Sheet sheet = workbook.createSheet("sheet" + (5 - s));
+                    for (int i = 0; i < 50; i++) {
+                        Row row = sheet.createRow(i);
+                        for (int j = 0; j <= i % 4; j++) {
+                            // 奇数sheet页只有空白单元格
+                            Cell cell = row.createCell(j);
+                            if (s % 2 == 0) {
+                                cell.setCellValue("v" + i * j);
+                            }
+                        }
+                        row.createCell(4).setCellValue(i * s);
+                    }
+                    sheet.addMergedRegion(new CellRangeAddress(10, 12, 1, 5));
+                }
+                // 空sheet页不返回
+                workbook.createSheet("empty");
+                workbook.write(os);
+            }
+            Map<String, List<List<Object>>> expected = ExcelReadUtils.readAllRows(multiSheetFile.getPath());
+            Map<String, List<List<Object>>> actual = ExcelReadUtils.readAllRowsInParallel(multiSheetFile.getPath());
+            assertEquals(expected, actual);
+            assertEquals(Arrays.asList("sheet5", "sheet4", "sheet3", "sheet2", "sheet1", "sheet0"), new ArrayList<>(actual.keySet()));
+        } finally {
+            multiSheetFile.delete();
+        }
+    }
+
+    /**
+     * 异步分批处理时顺序不变，最后一批不足batchSize
+     */
+    @Test
+    public void readInBatchesKeepsOrder() {
+        List<List<ExcelUser>> batches = new ArrayList<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            long count = ExcelReadUtils.readInBatches(file, 1, ExcelUser.class, 2, batches::add, executor, 1);
+            assertEquals(5, count);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(3, batches.size());
+        assertEquals(Arrays.asList(2, 2, 1), batches.stream().map(List::size).collect(Collectors.toList()));
+        assertEquals("用户1", batches.get(0).get(0).getName());
+        assertEquals("用户5", batches.get(1).get(1).getName());
+    }
+
+    /**
+     * 按字段声明顺序映射列
+     */
+    @Test
+    public void getEntityByRowMapsColumnsToFields() {
+        List<List<Object>> rows = ExcelReadUtils.readRows(file.getPath());
+        ExcelUser first = ExcelReadUtils.getEntityByRow(rows.get(1), ExcelUser.class);
+        assertEquals("用户1", first.getName());
+        assertEquals(Integer.valueOf(21), first.getAge());
+        assertEquals(LocalDate.of(2020, 9, 14), first.getBirthday());
+        assertEquals(Boolean.FALSE, first.getEnabled());
+
+        ExcelUser last = ExcelReadUtils.getEntityByRow(rows.get(4), ExcelUser.class);
+        assertEquals("用户5", last.getName());
+        assertEquals(Integer.valueOf(25), last.getAge());
+    }
+
+    /**
+     * 合并单元格都取左上角的值
+     */
+    @Test
+    public void readRowsFillsMergedRegions() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            for (int i = 0; i < 4; i++) {
+                Row row = sheet.createRow(i);
+                for (int j = 0; j < 4; j++) {
+                    row.createCell(j).setCellValue(i + "-" + j);
+                }
+            }
+            sheet.addMergedRegion(new CellRangeAddress(0, 1, 1, 2));
+            sheet.addMergedRegion(new CellRangeAddress(2, 3, 0, 0));
+            sheet.addMergedRegion(new CellRangeAddress(3, 3, 2, 3));
+
+            List<List<Object>> rows = ExcelReadUtils.readRows(sheet);
+            assertEquals(Arrays.asList("0-0", "0-1", "0-1", "0-3", ""), rows.get(0));
+            assertEquals(Arrays.asList("1-0", "0-1", "0-1", "1-3", ""), rows.get(1));
+            assertEquals(Arrays.asList("2-0", "2-1", "2-2", "2-3", ""), rows.get(2));
+            assertEquals(Arrays.asList("2-0", "3-1", "3-2", "3-2", ""), rows.get(3));
+            assertEquals(rows, ExcelReadUtils.readTable(sheet).asRows());
+        }
+    }
+
+    private static List<List<Object>> trimTail(List<List<Object>> rows) {
+        List<List<Object>> result = new ArrayList<>();
+        for (List<Object> row : rows) {
+            int size = row.size();
+            while (size > 0 && "".equals(row.get(size - 1))) {
+                size--;
+            }
+            result.add(row.subList(0, size));
+        }
+        return result;
+    }
+
+    @Test
+    public void iteratorClosedAfterExhausted() {
+        ExcelRowIterator iterator = ExcelReadUtils.iterateRows(file);
+        while (iterator.hasNext()) {
+            iterator.next();
+        }
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Data
+    public static class ExcelUser {
+
+        private String name;
+
+        private Integer age;
+
+        private LocalDate birthday;
+
+        private Boolean enabled;
+    }
+}
@@ -0,0 +1,294 @@
+package com.ezreal.util;
+
+import lombok.Data;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExcelWriteUtilsTest {
+
+    @Test
+    public void writtenRowsReadBack() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = ExcelWriteUtils.write(out, User.class, IntStream.range(0, 300).mapToObj(User::new),
+                ExcelWriteOptions.defaults().setRowAccessWindowSize(10));
+        assertEquals(300, count);
+
+        List<List<Object>> rows = ExcelReadUtils.readRows(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(301, rows.size());
+        assertEquals(Arrays.asList("name", "age", "birthday", "enabled", "created"), rows.get(0).subList(0, 5));
+        List<Object> last = rows.get(300);
+        assertEquals("u299", last.get(0));
+        assertEquals(299D, last.get(1));
+        assertEquals(Date.from(LocalDate.of(2000, 1, 1).plusDays(299).atStartOfDay(ZoneId.systemDefault()).toInstant()), last.get(2));
+        assertEquals("FALSE", last.get(3).toString().toUpperCase());
+        // 空值不创建单元格
+        assertEquals("", rows.get(1).get(4));
+
+        User user = ExcelReadUtils.getEntityByRow(last, User.class);
+        assertEquals("u299", user.getName());
+        assertEquals(Integer.valueOf(299), user.getAge());
+        assertEquals(LocalDate.of(2000, 1, 1).plusDays(299), user.getBirthday());
+    }
+
+    /**
+     * 超出行窗口的行直接写入输出流，最后一行生成之前文件已经开始输出
+     */
+    @Test
+    public void rowsAreWrittenBeforeTheLastRow() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Integer> sizes = new ArrayList<>();
+        ExcelWriteUtils.write(out, User.class, IntStream.range(0, 5000).peek(i -> {
+            if (i % 1000 == 0) {
+                sizes.add(out.size());
+            }
+        }).mapToObj(User::new), ExcelWriteOptions.defaults().setRowAccessWindowSize(10));
+        assertTrue(sizes.get(4) > sizes.get(2) && sizes.get(2) > sizes.get(0), sizes.toString());
+
+        List<List<Object>> rows = ExcelReadUtils.readRows(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(5001, rows.size());
+        assertEquals("u4999", rows.get(5000).get(0));
+    }
+
+    @Test
+    public void selectedColumnsAndHeaders() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExcelWriteUtils.write(out, User.class, Arrays.asList(new User(1), new User(2)).iterator(),
+                ExcelWriteOptions.defaults().setColumns(Arrays.asList("age", "name")).setHeaders(Arrays.asList("年龄", "姓名")));
+
+        List<List<Object>> rows = ExcelReadUtils.readRows(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(Arrays.asList("年龄", "姓名"), rows.get(0).subList(0, 2));
+        assertEquals(Arrays.asList(2D, "u2"), rows.get(2).subList(0, 2));
+
+        assertThrows(ServiceException.class, () -> ExcelWriteUtils.write(new ByteArrayOutputStream(), User.class,
+                Arrays.asList(new User(1)).iterator(), ExcelWriteOptions.defaults().setColumns(Arrays.asList("phone"))));
+    }
+
+    @Test
+    public void stylesAreSharedAcrossCells() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExcelWriteUtils.write(out, User.class, IntStream.range(0, 2000).mapToObj(User::new).peek(user -> user.setCreated(new Date())),
+                ExcelWriteOptions.defaults().setColumnFormats(Collections.singletonMap("age", "#,##0.00")));
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            // 默认样式、表头、数值、日期、日期时间
+            assertEquals(5, workbook.getNumCellStyles());
+            Row row = workbook.getSheetAt(0).getRow(2000);
+            assertEquals("#,##0.00", row.getCell(1).getCellStyle().getDataFormatString());
+            assertEquals("yyyy-mm-dd", row.getCell(2).getCellStyle().getDataFormatString());
+            assertEquals("yyyy-mm-dd hh:mm:ss", row.getCell(4).getCellStyle().getDataFormatString());
+            assertTrue(workbook.getFontAt(workbook.getSheetAt(0).getRow(0).getCell(0).getCellStyle().getFontIndex()).getBold());
+        }
+    }
+
+    @Test
+    public void sqlDatesAreWrittenAsDates() throws IOException {
+        JdbcRow jdbcRow = new JdbcRow();
+        jdbcRow.setDay(java.sql.Date.valueOf(LocalDate.of(2020, 9, 14)));
+        jdbcRow.setTime(java.sql.Time.valueOf("08:30:00"));
+        jdbcRow.setValue(java.sql.Date.valueOf(LocalDate.of(2021, 1, 2)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExcelWriteUtils.write(out, JdbcRow.class, Collections.singletonList(jdbcRow).iterator());
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Row row = workbook.getSheetAt(0).getRow(1);
+            assertEquals(DateUtil.getExcelDate(jdbcRow.getDay()), row.getCell(0).getNumericCellValue());
+            assertEquals(DateUtil.getExcelDate(jdbcRow.getTime()), row.getCell(1).getNumericCellValue(), 1e-9);
+            // 声明类型为Object的列按值的类型写成日期
+            assertEquals(DateUtil.getExcelDate((Date) jdbcRow.getValue()), row.getCell(2).getNumericCellValue());
+            assertEquals("yyyy-mm-dd hh:mm:ss", row.getCell(2).getCellStyle().getDataFormatString());
+        }
+    }
+
+    @Test
+    public void rollsOverToNewSheetsWithHeader() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExcelWriteOptions options = ExcelWriteOptions.defaults().setSheetName("用户").setMaxRowsPerSheet(11);
+        assertEquals(25, ExcelWriteUtils.write(out, User.class, IntStream.range(0, 25).mapToObj(User::new), options));
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(3, workbook.getNumberOfSheets());
+            assertEquals("用户_3", workbook.getSheetName(2));
+            assertEquals("name", workbook.getSheetAt(2).getRow(0).getCell(0).getStringCellValue());
+            assertEquals("u20", workbook.getSheetAt(2).getRow(1).getCell(0).getStringCellValue());
+            assertEquals(5, workbook.getSheetAt(2).getLastRowNum());
+        }
+
+        // 正好写满时不留空sheet页
+        out.reset();
+        ExcelWriteUtils.write(out, User.class, IntStream.range(0, 20).mapToObj(User::new), options);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(2, workbook.getNumberOfSheets());
+        }
+
+        assertThrows(ServiceException.class, () -> ExcelWriteUtils.write(new ByteArrayOutputStream(), User.class,
+                IntStream.range(0, 25).mapToObj(User::new), options.setMaxSheetsPerWorkbook(2)));
+    }
+
+    @Test
+    public void rollsOverToNewWorkbooksInZip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExcelWriteOptions options = ExcelWriteOptions.defaults().setMaxRowsPerSheet(11).setMaxSheetsPerWorkbook(2);
+        assertEquals(45, ExcelWriteUtils.writeZip(out, "用户", User.class, IntStream.range(0, 45).mapToObj(User::new), options));
+
+        List<String> names = new ArrayList<>();
+        List<Integer> sheets = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                names.add(entry.getName());
+                XSSFWorkbook workbook = new XSSFWorkbook(new CloseShieldInputStream(zip));
+                sheets.add(workbook.getNumberOfSheets());
+                workbook.close();
+            }
+        }
+        assertEquals(Arrays.asList("用户_1.xlsx", "用户_2.xlsx", "用户_3.xlsx"), names);
+        assertEquals(Arrays.asList(2, 2, 1), sheets);
+    }
+
+    @Test
+    public void sheetsAreWrittenInParallel() throws IOException {
+        List<ExcelSheetData<?>> sheets = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            int region = i;
+            sheets.add(ExcelSheetData.of("区域" + i, User.class,
+                    () -> IntStream.range(0, 1000 * region).mapToObj(User::new).peek(user -> user.setCreated(new Date()))));
+        }
+        sheets.add(ExcelSheetData.of("年龄", User.class, () -> IntStream.range(0, 10).mapToObj(User::new))
+                .withOptions(ExcelWriteOptions.defaults().setColumns(Collections.singletonList("age")).setHeaderStyle(null)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(10010, ExcelWriteUtils.writeSheets(out, sheets, ExcelWriteOptions.defaults().setRowAccessWindowSize(10)));
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(5, workbook.getNumberOfSheets());
+            for (int i = 1; i <= 4; i++) {
+                Sheet sheet = workbook.getSheetAt(i - 1);
+                assertEquals("区域" + i, sheet.getSheetName());
+                assertEquals(1000 * i, sheet.getLastRowNum());
+                assertEquals("u" + (1000 * i - 1), sheet.getRow(1000 * i).getCell(0).getStringCellValue());
+            }
+            assertEquals(9D, workbook.getSheetAt(4).getRow(10).getCell(0).getNumericCellValue());
+            // 所有sheet页共用样式：默认样式、表头、日期、日期时间
+            assertEquals(4, workbook.getNumCellStyles());
+        }
+
+        List<ExcelSheetData<?>> failing = Arrays.asList(sheets.get(0), ExcelSheetData.of("失败", User.class, () -> {
+            throw new ServiceException("查询失败");
+        }));
+        ServiceException e = assertThrows(ServiceException.class,
+                () -> ExcelWriteUtils.writeSheets(new ByteArrayOutputStream(), failing, ExcelWriteOptions.defaults()));
+        assertEquals("查询失败", e.getMessage());
+    }
+
+    @Test
+    public void failedSheetWaitsForOtherSheets() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch producing = new CountDownLatch(100);
+            AtomicBoolean closed = new AtomicBoolean();
+            List<ExcelSheetData<?>> sheets = Arrays.asList(
+                    ExcelSheetData.of("失败", User.class, () -> {
+                        try {
+                            producing.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        throw new ServiceException("查询失败");
+                    }),
+                    // 没有尽头的sheet页，只能因为其他sheet页失败而停止，关闭得比较慢
+                    ExcelSheetData.of("进行中", User.class, () -> IntStream.iterate(0, i -> i + 1).mapToObj(User::new)
+                            .peek(user -> producing.countDown()).onClose(() -> {
+                                try {
+                                    Thread.sleep(500);
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                                closed.set(true);
+                            })));
+
+            ServiceException e = assertThrows(ServiceException.class,
+                    () -> ExcelWriteUtils.writeSheets(new ByteArrayOutputStream(), sheets, ExcelWriteOptions.defaults(), executor));
+            assertEquals("查询失败", e.getMessage());
+            // 返回时另一个sheet页已经结束，不会再写入已删除的临时文件
+            assertTrue(closed.get());
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * XSSFWorkbook读完后会关闭输入流
+     */
+    private static class CloseShieldInputStream extends FilterInputStream {
+
+        CloseShieldInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Data
+    public static class JdbcRow {
+
+        private java.sql.Date day;
+
+        private java.sql.Time time;
+
+        private Object value;
+    }
+
+    @Data
+    public static class User {
+
+        private String name;
+
+        private Integer age;
+
+        private LocalDate birthday;
+
+        private boolean enabled;
+
+        private Date created;
+
+        public User() {
+        }
+
+        User(int i) {
+            this.name = "u" + i;
+            this.age = i;
+            this.birthday = LocalDate.of(2000, 1, 1).plusDays(i);
+            this.enabled = i % 2 == 0;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.ezreal.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 反复调用同一个getter的耗时对比，不属于单元测试
+ * 运行：mvn -pl easy-poi-common test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main MethodInvokerBenchmark"
+ *
+ * @author ezreal
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodInvokerBenchmark {
+
+    private Bean bean;
+
+    private Method method;
+
+    private MethodInvoker invoker;
+
+    /**
+     * 展开参数数组的MethodHandle，MethodInvoker原来的实现
+     */
+    private MethodHandle spreader;
+
+    private Function<Bean, Long> getter;
+
+    @Setup
+    public void setUp() {
+        bean = new Bean();
+        bean.setValue(42L);
+        method = ClassUtil.getGetterMethod(Bean.class, "value");
+        ClassUtil.makeAccessible(method);
+        invoker = MethodInvoker.getGetter(Bean.class, "value");
+        try {
+            spreader = MethodHandles.lookup().unreflect(method).asType(MethodType.genericMethodType(1))
+                    .asSpreader(Object[].class, 0);
+        } catch (IllegalAccessException e) {
+            throw ReflectionUtil.convertReflectionExceptionToUnchecked(e);
+        }
+        getter = FastMethodInvoker.getter(Bean.class, "value");
+    }
+
+    @Benchmark
+    public long direct() {
+        return bean.getValue();
+    }
+
+    @Benchmark
+    public Object methodInvoke() throws InvocationTargetException, IllegalAccessException {
+        return method.invoke(bean);
+    }
+
+    @Benchmark
+    public Object methodInvoker() {
+        return invoker.invoke(bean);
+    }
+
+    @Benchmark
+    public Object spreadMethodHandle() throws Throwable {
+        return spreader.invokeExact((Object) bean, new Object[0]);
+    }
+
+    @Benchmark
+    public Object fastMethodInvoker() {
+        return getter.apply(bean);
+    }
+
+    @Benchmark
+    public Object reflectionUtil() {
+        return ReflectionUtil.invokeGetter(bean, "value");
+    }
+
+    public static class Bean {
+
+        private long value;
+
+        public long getValue() {
+            return value;
+        }
+
+        public void setValue(long value) {
+            this.value = value;
+        }
+    }
+}
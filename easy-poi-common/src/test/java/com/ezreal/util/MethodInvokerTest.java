@@ -0,0 +1,93 @@
+package com.ezreal.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MethodInvokerTest {
+
+    @Test
+    public void methodInvokerMatchesReflectionUtil() {
+        Bean bean = new Bean();
+        MethodInvoker setter = MethodInvoker.getSetter(Bean.class, "count", int.class);
+        assertNull(setter.invoke(bean, 3));
+        assertEquals(3, (int) MethodInvoker.getGetter(Bean.class, "count").invoke(bean));
+
+        MethodInvoker join = MethodInvoker.getMethod(Bean.class, "join", String.class, int.class);
+        assertEquals((Object) ReflectionUtil.invokeMethodByName(bean, "join", new Object[]{"a", 2}), join.invoke(bean, "a", 2));
+        assertEquals("x", MethodInvoker.getMethod(Bean.class, "echo", String.class).invoke(null, "x"));
+        assertThrows(IllegalArgumentException.class, () -> join.invoke(bean, "a"));
+
+        MethodInvoker fail = MethodInvoker.getMethod(Bean.class, "fail");
+        ExceptionUtil.UncheckedException e = assertThrows(ExceptionUtil.UncheckedException.class, () -> fail.invoke(bean));
+        assertTrue(e.getCause() instanceof IOException);
+    }
+
+    @Test
+    public void fastMethodInvokerGeneratesTypedAccessors() {
+        Bean bean = new Bean();
+        BiConsumer<Bean, Integer> setCount = FastMethodInvoker.setter(Bean.class, "count", int.class);
+        Function<Bean, Integer> getCount = FastMethodInvoker.getter(Bean.class, "count");
+        setCount.accept(bean, 7);
+        assertEquals(Integer.valueOf(7), getCount.apply(bean));
+
+        // 链式setter、is开头的getter
+        BiConsumer<Bean, String> setName = FastMethodInvoker.setter(Bean.class, "name", String.class);
+        setName.accept(bean, "bean");
+        assertEquals("bean", bean.name);
+        Function<Bean, Boolean> isNamed = FastMethodInvoker.getter(Bean.class, "named");
+        assertSame(Boolean.TRUE, isNamed.apply(bean));
+
+        // 私有方法退回MethodHandle
+        Function<Bean, String> secret = FastMethodInvoker.getter(Bean.class, "secret");
+        assertEquals("bean!", secret.apply(bean));
+    }
+
+    public static class Bean {
+
+        private int count;
+
+        private String name;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public Bean setName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public boolean isNamed() {
+            return name != null;
+        }
+
+        private String getSecret() {
+            return name + "!";
+        }
+
+        public String join(String prefix, int times) {
+            return prefix + times + count;
+        }
+
+        public static String echo(String value) {
+            return value;
+        }
+
+        public void fail() throws IOException {
+            throw new IOException("fail");
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.ezreal.util;
+
+import lombok.Data;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已读出的行转换成对象的耗时对比，每次调用转换全部的行，不属于单元测试
+ * reflection是缓存映射计划之前的做法：每行getDeclaredFields、newInstance，每个字段按名称查找Field后赋值；
+ * mappingPlan只换成缓存的映射计划，值仍先转成字符串再解析，二者之差即映射计划的收益；
+ * getEntityByRow是现在的完整路径，按单元格原始类型直接转换
+ * 运行：mvn -pl easy-poi-common test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main RowMappingPlanBenchmark"
+ *
+ * @author ezreal
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class RowMappingPlanBenchmark {
+
+    @Param("1000000")
+    private int rows;
+
+    /**
+     * 与流式读取得到的行一致：文本为String，数字为Double，布尔为Boolean
+     */
+    private List<List<Object>> data;
+
+    @Setup
+    public void setUp() {
+        data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            data.add(Arrays.asList("u" + i, (double) (i % 100), (double) i, i / 7D, i / 100D,
+                    i % 2 == 0, "1380000" + i, "u" + i + "@example.com"));
+        }
+        // 三种做法的结果必须一致，否则对比没有意义
+        List<Object> row = data.get(rows - 1);
+        Bean expected = reflection(row, Bean.class);
+        if (!expected.equals(mappingPlan(row, Bean.class)) || !expected.equals(ExcelReadUtils.getEntityByRow(row, Bean.class))) {
+            throw new IllegalStateException("转换结果不一致：" + expected);
+        }
+    }
+
+    @Benchmark
+    public void reflection(Blackhole blackhole) {
+        for (List<Object> row : data) {
+            blackhole.consume(reflection(row, Bean.class));
+        }
+    }
+
+    @Benchmark
+    public void mappingPlan(Blackhole blackhole) {
+        for (List<Object> row : data) {
+            blackhole.consume(mappingPlan(row, Bean.class));
+        }
+    }
+
+    @Benchmark
+    public void getEntityByRow(Blackhole blackhole) {
+        for (List<Object> row : data) {
+            blackhole.consume(ExcelReadUtils.getEntityByRow(row, Bean.class));
+        }
+    }
+
+    /**
+     * 缓存映射计划之前getEntityByObjectRow对List行的处理
+     */
+    private static <T> T reflection(List<Object> row, Class<T> type) {
+        T entity;
+        try {
+            entity = type.newInstance();
+        } catch (Exception e) {
+            throw new ServiceException(type.getSimpleName() + "实例化失败！" + e.getMessage());
+        }
+        Field[] fields = type.getDeclaredFields();
+        for (int j = 0; j < fields.length; j++) {
+            Object value = row.get(j);
+            if (null == value || StringUtils.isBlank(value.toString())) {
+                continue;
+            }
+            Field field = fields[j];
+            ReflectionUtil.setFieldValue(entity, field.getName(), ExcelReadUtils.initValueByType(value.toString(), field.getType()));
+        }
+        return entity;
+    }
+
+    /**
+     * 使用缓存的映射计划，值的转换方式与reflection相同
+     */
+    private static <T> T mappingPlan(List<Object> row, Class<T> type) {
+        RowMappingPlan<T> plan = RowMappingPlan.of(type);
+        T entity = plan.newInstance();
+        for (RowMappingPlan.FieldMapping field : plan.getFields()) {
+            int j = field.getColumn();
+            Object value = j < row.size() ? row.get(j) : null;
+            if (null == value || StringUtils.isBlank(value.toString())) {
+                continue;
+            }
+            field.set(entity, ExcelReadUtils.initValueByType(value.toString(), field.getType()));
+        }
+        return entity;
+    }
+
+    @Data
+    public static class Bean {
+
+        private String name;
+
+        private Integer age;
+
+        private Long id;
+
+        private Double score;
+
+        private BigDecimal amount;
+
+        private Boolean enabled;
+
+        private String phone;
+
+        private String email;
+    }
+}
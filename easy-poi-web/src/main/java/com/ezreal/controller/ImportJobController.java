@@ -0,0 +1,52 @@
+package com.ezreal.controller;
+
+import com.ezreal.model.ImportJobVO;
+import com.ezreal.model.UserDTO;
+import com.ezreal.service.ImportJobServiceImpl;
+import com.ezreal.service.UserServiceImpl;
+import com.github.dozermapper.core.DozerBeanMapperBuilder;
+import com.github.dozermapper.core.Mapper;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.Resource;
+
+/**
+ * 异步导入：提交后立即返回任务id，通过任务id查询进度或取消
+ */
+@RestController
+public class ImportJobController {
+
+    private static final Mapper MAPPER = DozerBeanMapperBuilder.buildDefault();
+
+    @Resource
+    private ImportJobServiceImpl importJobService;
+
+    @Resource
+    private UserServiceImpl userService;
+
+    /**
+     * 导入用户，第一行为表头
+     *
+     * @return 任务id
+     */
+    @PostMapping("/api/web/user/import")
+    public String importUsers(@RequestParam("file") MultipartFile file) {
+        return importJobService.submit(file, 1, UserDTO.class, userService::importUsers);
+    }
+
+    @GetMapping("/api/web/import/{jobId}")
+    public ImportJobVO getJob(@PathVariable("jobId") String jobId) {
+        return MAPPER.map(importJobService.getJob(jobId), ImportJobVO.class);
+    }
+
+    @DeleteMapping("/api/web/import/{jobId}")
+    public ImportJobVO cancel(@PathVariable("jobId") String jobId) {
+        return MAPPER.map(importJobService.cancel(jobId), ImportJobVO.class);
+    }
+}
@@ -6,9 +6,12 @@ import com.ezreal.service.UserServiceImpl;
 import com.github.dozermapper.core.DozerBeanMapperBuilder;
 import com.github.dozermapper.core.Mapper;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 
 @RestController
 public class UserController {
@@ -17,15 +20,51 @@ public class UserController {
     private UserServiceImpl userService;
 
 
+    /**
+     * 导出用户，直接写入响应流
+     *
+     * @param size 用户数，默认100
+     */
     @GetMapping("/api/web/user/generateExcel")
-    public String getUserExcel() {
-
-
+    public void getUserExcel(@RequestParam(value = "size", required = false) Integer size, HttpServletResponse response) throws IOException {
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader("Content-Disposition", "attachment; filename=users.xlsx");
+        userService.generateUser(size, response.getOutputStream());
+        response.flushBuffer();
+    }
 
-        //when
-        //then
-        return "";
+    /**
+     * 导出用户到多个工作簿，打包成zip
+     *
+     * @param size          用户数，默认100
+     * @param rowsPerSheet  每个sheet页的最大行数(含表头)，默认1048576
+     * @param sheetsPerFile 每个工作簿的sheet页数，默认1
+     */
+    @GetMapping("/api/web/user/generateZip")
+    public void getUserZip(@RequestParam(value = "size", required = false) Integer size,
+                           @RequestParam(value = "rowsPerSheet", required = false) Integer rowsPerSheet,
+                           @RequestParam(value = "sheetsPerFile", defaultValue = "1") int sheetsPerFile,
+                           HttpServletResponse response) throws IOException {
+        response.setContentType("application/zip");
+        response.setHeader("Content-Disposition", "attachment; filename=users.zip");
+        userService.generateUserZip(size, rowsPerSheet, sheetsPerFile, response.getOutputStream());
+        response.flushBuffer();
+    }
 
+    /**
+     * 按sheet页分段导出用户，各sheet页并行写入
+     *
+     * @param size   用户数，默认100
+     * @param sheets sheet页数，默认4
+     */
+    @GetMapping("/api/web/user/generateSheets")
+    public void getUserSheets(@RequestParam(value = "size", required = false) Integer size,
+                              @RequestParam(value = "sheets", defaultValue = "4") int sheets,
+                              HttpServletResponse response) throws IOException {
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader("Content-Disposition", "attachment; filename=users.xlsx");
+        userService.generateUserSheets(size, sheets, response.getOutputStream());
+        response.flushBuffer();
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,21 @@
+package com.ezreal.model;
+
+import lombok.Data;
+
+@Data
+public class ImportJobVO {
+
+    private String jobId;
+
+    private String fileName;
+
+    private String status;
+
+    private Long rowsProcessed;
+
+    private Double rowsPerSecond;
+
+    private Long elapsedMillis;
+
+    private String message;
+}